@@ -0,0 +1,35 @@
+package com.logistics.loadplanner;
+
+import com.logistics.loadplanner.config.BulkProperties;
+import com.logistics.loadplanner.service.BulkPlanningService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the offline bulk planner at startup when {@code planner.bulk.input} is set.
+ * Combine with the {@code bulk} profile to start without the web server:
+ *
+ * <pre>
+ * java -jar truck-load-planner.jar --spring.profiles.active=bulk \
+ *     --planner.bulk.input=requests.ndjson --planner.bulk.output=results.ndjson
+ * </pre>
+ */
+@Component
+@ConditionalOnProperty(prefix = "planner.bulk", name = "input")
+public class BulkPlanningRunner implements ApplicationRunner {
+
+    private final BulkPlanningService bulkPlanningService;
+    private final BulkProperties properties;
+
+    public BulkPlanningRunner(BulkPlanningService bulkPlanningService, BulkProperties properties) {
+        this.bulkPlanningService = bulkPlanningService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        bulkPlanningService.run(properties);
+    }
+}
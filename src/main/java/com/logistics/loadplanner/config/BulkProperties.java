@@ -0,0 +1,96 @@
+package com.logistics.loadplanner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Offline bulk planning settings (planner.bulk.*). Setting {@code input} runs the bulk
+ * planner at startup; see README "Bulk Planning".
+ */
+@ConfigurationProperties(prefix = "planner.bulk")
+public class BulkProperties {
+    
+    // NDJSON file with one OptimizeRequest per line
+    private String input;
+    
+    // NDJSON results, one line per request in input order; defaults to <input>.results.ndjson
+    private String output;
+    
+    // Resume state; defaults to <output>.checkpoint and is removed after a complete run
+    private String checkpoint;
+    
+    private int parseThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    
+    private int solveThreads = Runtime.getRuntime().availableProcessors();
+    
+    // Requests read ahead of the writer; bounds memory and keeps output ordered
+    private int window = 1024;
+    
+    // Requests written between checkpoints
+    private int checkpointInterval = 10000;
+    
+    private int reportIntervalSeconds = 10;
+    
+    public String getInput() {
+        return input;
+    }
+    
+    public void setInput(String input) {
+        this.input = input;
+    }
+    
+    public String getOutput() {
+        return output != null ? output : input + ".results.ndjson";
+    }
+    
+    public void setOutput(String output) {
+        this.output = output;
+    }
+    
+    public String getCheckpoint() {
+        return checkpoint != null ? checkpoint : getOutput() + ".checkpoint";
+    }
+    
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+    
+    public int getParseThreads() {
+        return parseThreads;
+    }
+    
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+    
+    public int getSolveThreads() {
+        return solveThreads;
+    }
+    
+    public void setSolveThreads(int solveThreads) {
+        this.solveThreads = solveThreads;
+    }
+    
+    public int getWindow() {
+        return window;
+    }
+    
+    public void setWindow(int window) {
+        this.window = window;
+    }
+    
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+    
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+    
+    public int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+    
+    public void setReportIntervalSeconds(int reportIntervalSeconds) {
+        this.reportIntervalSeconds = reportIntervalSeconds;
+    }
+}
@@ -0,0 +1,74 @@
+package com.logistics.loadplanner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * DP table settings (planner.dp.*).
+ */
+@ConfigurationProperties(prefix = "planner.dp")
+public class DpProperties {
+    
+    /**
+     * Where DP tables over the heap budget are kept.
+     */
+    public enum OffHeapMode {
+        // Unlinked memory-mapped temp file; pages are file-backed and reclaimable
+        MAPPED,
+        // Direct ByteBuffer; anonymous memory bounded by -XX:MaxDirectMemorySize
+        DIRECT
+    }
+    
+    // Upper bound on heap held by idle pooled arenas; arenas returned beyond it are dropped
+    private long arenaPoolMaxBytes = 64L * 1024 * 1024;
+    
+    // Largest estimated table solved on the heap; bigger solves use the off-heap backend
+    private long heapTableMaxBytes = 8L * 1024 * 1024;
+    
+    private OffHeapMode offHeapMode = OffHeapMode.MAPPED;
+    
+    // Directory for mapped tables; defaults to java.io.tmpdir
+    private String offHeapDir;
+    
+    // Off-heap solves allowed at once; each holds up to 512 MiB, so further ones wait
+    private int offHeapMaxConcurrent = 1;
+    
+    public long getArenaPoolMaxBytes() {
+        return arenaPoolMaxBytes;
+    }
+    
+    public void setArenaPoolMaxBytes(long arenaPoolMaxBytes) {
+        this.arenaPoolMaxBytes = arenaPoolMaxBytes;
+    }
+    
+    public long getHeapTableMaxBytes() {
+        return heapTableMaxBytes;
+    }
+    
+    public void setHeapTableMaxBytes(long heapTableMaxBytes) {
+        this.heapTableMaxBytes = heapTableMaxBytes;
+    }
+    
+    public OffHeapMode getOffHeapMode() {
+        return offHeapMode;
+    }
+    
+    public void setOffHeapMode(OffHeapMode offHeapMode) {
+        this.offHeapMode = offHeapMode;
+    }
+    
+    public String getOffHeapDir() {
+        return offHeapDir;
+    }
+    
+    public void setOffHeapDir(String offHeapDir) {
+        this.offHeapDir = offHeapDir;
+    }
+    
+    public int getOffHeapMaxConcurrent() {
+        return offHeapMaxConcurrent;
+    }
+    
+    public void setOffHeapMaxConcurrent(int offHeapMaxConcurrent) {
+        this.offHeapMaxConcurrent = offHeapMaxConcurrent;
+    }
+}
@@ -0,0 +1,21 @@
+package com.logistics.loadplanner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Order pool queries (planner.pool.*).
+ */
+@ConfigurationProperties(prefix = "planner.pool")
+public class PoolProperties {
+
+    // Candidates solved per lane in a best-load query; the default keeps the table on the heap
+    private int maxCandidates = 25;
+
+    public int getMaxCandidates() {
+        return maxCandidates;
+    }
+
+    public void setMaxCandidates(int maxCandidates) {
+        this.maxCandidates = maxCandidates;
+    }
+}
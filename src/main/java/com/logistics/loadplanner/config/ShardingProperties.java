@@ -0,0 +1,67 @@
+package com.logistics.loadplanner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lane sharding settings (planner.sharding.*). With sharding enabled, every instance
+ * owns the lanes that hash to it on a consistent-hash ring built from {@code selfUrl}
+ * and {@code peers}, and forwards work for other lanes to their owners.
+ */
+@ConfigurationProperties(prefix = "planner.sharding")
+public class ShardingProperties {
+    
+    private boolean enabled = false;
+    
+    // Base URL other instances use to reach this one, e.g. http://10.0.0.5:8080
+    private String selfUrl = "http://localhost:8080";
+    
+    private List<String> peers = new ArrayList<>();
+    
+    // Ring points per instance; more points give a more even lane spread
+    private int virtualNodes = 128;
+    
+    private int timeoutMs = 30000;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getSelfUrl() {
+        return selfUrl;
+    }
+    
+    public void setSelfUrl(String selfUrl) {
+        this.selfUrl = selfUrl;
+    }
+    
+    public List<String> getPeers() {
+        return peers;
+    }
+    
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+    
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+    
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+    
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+    
+    public void setTimeoutMs(int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+}
@@ -0,0 +1,43 @@
+package com.logistics.loadplanner.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Request-level solver concurrency (planner.solver.*).
+ */
+@ConfigurationProperties(prefix = "planner.solver")
+public class SolverProperties {
+    
+    // Split each optimize request into lane / hazmat subproblems solved on the CPU pool
+    private boolean fanOut = false;
+    
+    // CPU pool size; subproblems beyond it queue
+    private int threads = Runtime.getRuntime().availableProcessors();
+    
+    // Per-request solve budget, fanned out or not; unfinished subproblems are cancelled
+    private long deadlineMs = 30000;
+    
+    public boolean isFanOut() {
+        return fanOut;
+    }
+    
+    public void setFanOut(boolean fanOut) {
+        this.fanOut = fanOut;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+    
+    public void setDeadlineMs(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+}
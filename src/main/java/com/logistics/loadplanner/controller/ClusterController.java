@@ -0,0 +1,77 @@
+package com.logistics.loadplanner.controller;
+
+import com.logistics.loadplanner.dto.ClusterMembers;
+import com.logistics.loadplanner.dto.ClusterNodeRequest;
+import com.logistics.loadplanner.dto.ErrorResponse;
+import com.logistics.loadplanner.service.ShardRouter;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.function.Supplier;
+
+/**
+ * Lane-sharding membership. Join/leave can be sent to any member; it pushes the new view
+ * to every instance, each of which hands off the pooled lanes it no longer owns.
+ */
+@RestController
+@RequestMapping("/api/v1/cluster")
+public class ClusterController {
+    
+    private final ShardRouter shardRouter;
+    
+    public ClusterController(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
+    }
+    
+    @GetMapping("/members")
+    public ResponseEntity<?> members() {
+        return ResponseEntity.ok(shardRouter.members());
+    }
+    
+    @PostMapping("/join")
+    public ResponseEntity<?> join(@Valid @RequestBody ClusterNodeRequest request, BindingResult bindingResult) {
+        return change(bindingResult, () -> shardRouter.join(request.getUrl()));
+    }
+    
+    @PostMapping("/leave")
+    public ResponseEntity<?> leave(@Valid @RequestBody ClusterNodeRequest request, BindingResult bindingResult) {
+        return change(bindingResult, () -> shardRouter.leave(request.getUrl()));
+    }
+    
+    /**
+     * Applies a membership view pushed by another instance.
+     */
+    @PutMapping("/members")
+    public ResponseEntity<?> applyMembers(@RequestBody ClusterMembers view) {
+        if (view.getMembers() == null || view.getMembers().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse("Members list is required"));
+        }
+        return change(null, () -> shardRouter.applyMembers(view.getMembers()));
+    }
+    
+    private ResponseEntity<?> change(BindingResult bindingResult, Supplier<ClusterMembers> action) {
+        if (!shardRouter.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("Sharding is disabled (planner.sharding.enabled=false)"));
+        }
+        if (bindingResult != null && bindingResult.hasErrors()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse("Validation failed: url - "
+                    + bindingResult.getFieldErrors().get(0).getDefaultMessage()));
+        }
+        
+        try {
+            return ResponseEntity.ok(action.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+        }
+    }
+}
@@ -1,35 +1,44 @@
 package com.logistics.loadplanner.controller;
 
+import com.logistics.loadplanner.dto.ErrorResponse;
 import com.logistics.loadplanner.dto.OptimizeRequest;
 import com.logistics.loadplanner.dto.OptimizeResponse;
+import com.logistics.loadplanner.dto.OrderDto;
+import com.logistics.loadplanner.dto.SweepRequest;
+import com.logistics.loadplanner.dto.SweepResponse;
+import com.logistics.loadplanner.dto.TruckDto;
+import com.logistics.loadplanner.service.Lane;
 import com.logistics.loadplanner.service.LoadOptimizationService;
+import com.logistics.loadplanner.service.ShardRouter;
+import com.logistics.loadplanner.service.SolveDeadlineExceededException;
+import com.logistics.loadplanner.service.SolveProfiler;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/load-optimizer")
 public class LoadOptimizerController {
     
-    private final LoadOptimizationService optimizationService;
+    private final ShardRouter shardRouter;
     
-    public LoadOptimizerController(LoadOptimizationService optimizationService) {
-        this.optimizationService = optimizationService;
+    public LoadOptimizerController(ShardRouter shardRouter) {
+        this.shardRouter = shardRouter;
     }
     
     @PostMapping("/optimize")
     public ResponseEntity<?> optimize(@Valid @RequestBody OptimizeRequest request, 
-                                      BindingResult bindingResult) {
+                                      BindingResult bindingResult,
+                                      HttpServletRequest httpRequest,
+                                      @RequestHeader(value = ShardRouter.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
         // Validate request structure
         if (bindingResult.hasErrors()) {
-            StringBuilder errorMsg = new StringBuilder("Validation failed: ");
-            bindingResult.getFieldErrors().forEach(error -> 
-                errorMsg.append(error.getField()).append(" - ").append(error.getDefaultMessage()).append("; ")
-            );
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponse(errorMsg.toString().trim()));
+            return validationFailed(bindingResult);
         }
         
         // Additional validation
@@ -43,27 +52,112 @@ public class LoadOptimizerController {
                 .body(new ErrorResponse("Orders list is required"));
         }
         
-        // Validate order count
-        int orderCount = request.getOrders().size();
-        if (orderCount > 25) {
-            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
-                .body(new ErrorResponse(String.format("Maximum 25 orders allowed, received %d", orderCount)));
+        ResponseEntity<ErrorResponse> invalid = validateTruck(request.getTruck());
+        if (invalid == null) {
+            invalid = validateOrders(request.getOrders());
+        }
+        if (invalid != null) {
+            return invalid;
+        }
+        
+        // Present only when the request asked for a profile, by header or body flag
+        SolveProfiler profiler = (SolveProfiler) httpRequest.getAttribute(SolveProfiler.REQUEST_ATTRIBUTE);
+        if (profiler != null) {
+            profiler.end();
+        }
+        
+        try {
+            OptimizeResponse response = shardRouter.optimize(request, profiler, forwarded);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (SolveDeadlineExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/sweep")
+    public ResponseEntity<?> sweep(@Valid @RequestBody SweepRequest request,
+                                   BindingResult bindingResult,
+                                   @RequestHeader(value = ShardRouter.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        if (bindingResult.hasErrors()) {
+            return validationFailed(bindingResult);
         }
         
+        for (TruckDto truck : request.getTrucks()) {
+            ResponseEntity<ErrorResponse> invalid = validateTruck(truck);
+            if (invalid != null) {
+                return invalid;
+            }
+        }
+        ResponseEntity<ErrorResponse> invalid = validateOrders(request.getOrders());
+        if (invalid != null) {
+            return invalid;
+        }
+        
+        try {
+            return ResponseEntity.ok(new SweepResponse(
+                shardRouter.sweep(request.getTrucks(), request.getOrders(), forwarded)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (SolveDeadlineExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+        }
+    }
+    
+    private static ResponseEntity<ErrorResponse> validationFailed(BindingResult bindingResult) {
+        StringBuilder errorMsg = new StringBuilder("Validation failed: ");
+        bindingResult.getFieldErrors().forEach(error -> 
+            errorMsg.append(error.getField()).append(" - ").append(error.getDefaultMessage()).append("; ")
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(new ErrorResponse(errorMsg.toString().trim()));
+    }
+    
+    private static ResponseEntity<ErrorResponse> validateTruck(TruckDto truck) {
         // Validate truck constraints
-        if (request.getTruck().getMaxWeightLbs() == null || request.getTruck().getMaxWeightLbs() <= 0) {
+        if (truck.getMaxWeightLbs() == null || truck.getMaxWeightLbs() <= 0) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse("Truck max_weight_lbs must be positive"));
         }
         
-        if (request.getTruck().getMaxVolumeCuft() == null || request.getTruck().getMaxVolumeCuft() <= 0) {
+        if (truck.getMaxVolumeCuft() == null || truck.getMaxVolumeCuft() <= 0) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse("Truck max_volume_cuft must be positive"));
         }
         
+        return null;
+    }
+    
+    private static ResponseEntity<ErrorResponse> validateOrders(List<OrderDto> orders) {
+        // Validate order count: above 25 only single-lane requests are solved (off-heap)
+        int orderCount = orders.size();
+        if (orderCount > LoadOptimizationService.MAX_SINGLE_LANE_ORDERS) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse(String.format("Maximum %d orders allowed, received %d",
+                    LoadOptimizationService.MAX_SINGLE_LANE_ORDERS, orderCount)));
+        }
+        if (orderCount > LoadOptimizationService.MAX_ORDERS
+                && orders.stream().map(order -> new Lane(order.getOrigin(), order.getDestination())).distinct().count() > 1) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse(String.format(
+                    "Maximum %d orders allowed when orders span several lanes, received %d",
+                    LoadOptimizationService.MAX_ORDERS, orderCount)));
+        }
+        
         // Validate each order
-        for (int i = 0; i < request.getOrders().size(); i++) {
-            var order = request.getOrders().get(i);
+        for (int i = 0; i < orders.size(); i++) {
+            var order = orders.get(i);
             
             // Validate dates
             if (order.getPickupDate() != null && order.getDeliveryDate() != null) {
@@ -92,27 +186,6 @@ public class LoadOptimizerController {
             }
         }
         
-        try {
-            OptimizeResponse response = optimizationService.optimize(request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponse(e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new ErrorResponse("Internal server error: " + e.getMessage()));
-        }
-    }
-    
-    private static class ErrorResponse {
-        private final String error;
-        
-        public ErrorResponse(String error) {
-            this.error = error;
-        }
-        
-        public String getError() {
-            return error;
-        }
+        return null;
     }
 }
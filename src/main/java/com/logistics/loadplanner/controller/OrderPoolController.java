@@ -0,0 +1,102 @@
+package com.logistics.loadplanner.controller;
+
+import com.logistics.loadplanner.dto.BestLoadRequest;
+import com.logistics.loadplanner.dto.ErrorResponse;
+import com.logistics.loadplanner.dto.OptimizeResponse;
+import com.logistics.loadplanner.dto.OrderPoolInsertRequest;
+import com.logistics.loadplanner.dto.OrderPoolResponse;
+import com.logistics.loadplanner.service.OrderPoolService;
+import com.logistics.loadplanner.service.ShardRouter;
+import com.logistics.loadplanner.service.SolveDeadlineExceededException;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/order-pool")
+public class OrderPoolController {
+    
+    private final OrderPoolService orderPoolService;
+    private final ShardRouter shardRouter;
+    
+    public OrderPoolController(OrderPoolService orderPoolService, ShardRouter shardRouter) {
+        this.orderPoolService = orderPoolService;
+        this.shardRouter = shardRouter;
+    }
+    
+    @PostMapping("/orders")
+    public ResponseEntity<?> insert(@Valid @RequestBody OrderPoolInsertRequest request,
+                                    BindingResult bindingResult,
+                                    @RequestHeader(value = ShardRouter.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        if (bindingResult.hasErrors()) {
+            return validationError(bindingResult);
+        }
+        
+        try {
+            int inserted = shardRouter.insert(request.getOrders(), forwarded);
+            return ResponseEntity.ok(new OrderPoolResponse(inserted, orderPoolService.size()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/orders/{id}")
+    public ResponseEntity<?> remove(@PathVariable("id") String id,
+                                    @RequestHeader(value = ShardRouter.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        if (!shardRouter.remove(id, forwarded)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(String.format("Order %s is not in the pool", id)));
+        }
+        return ResponseEntity.ok(new OrderPoolResponse(1, orderPoolService.size()));
+    }
+    
+    @PostMapping("/expire")
+    public ResponseEntity<?> expire(@RequestParam("before") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate before,
+                                    @RequestHeader(value = ShardRouter.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        int expired = shardRouter.expire(before, forwarded);
+        return ResponseEntity.ok(new OrderPoolResponse(expired, orderPoolService.size()));
+    }
+    
+    @PostMapping("/best-load")
+    public ResponseEntity<?> bestLoad(@Valid @RequestBody BestLoadRequest request,
+                                      BindingResult bindingResult,
+                                      @RequestHeader(value = ShardRouter.FORWARDED_HEADER, defaultValue = "false") boolean forwarded) {
+        if (bindingResult.hasErrors()) {
+            return validationError(bindingResult);
+        }
+        
+        int horizonDays = request.getHorizonDays() != null
+            ? request.getHorizonDays() : OrderPoolService.DEFAULT_HORIZON_DAYS;
+        try {
+            OptimizeResponse response = shardRouter.bestLoad(request, horizonDays, forwarded);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (SolveDeadlineExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Internal server error: " + e.getMessage()));
+        }
+    }
+    
+    private static ResponseEntity<ErrorResponse> validationError(BindingResult bindingResult) {
+        StringBuilder errorMsg = new StringBuilder("Validation failed: ");
+        bindingResult.getFieldErrors().forEach(error ->
+            errorMsg.append(error.getField()).append(" - ").append(error.getDefaultMessage()).append("; ")
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(new ErrorResponse(errorMsg.toString().trim()));
+    }
+}
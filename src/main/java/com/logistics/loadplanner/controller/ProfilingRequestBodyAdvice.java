@@ -0,0 +1,74 @@
+package com.logistics.loadplanner.controller;
+
+import com.logistics.loadplanner.dto.OptimizeRequest;
+import com.logistics.loadplanner.service.SolveProfiler;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.lang.reflect.Type;
+
+/**
+ * Hands a {@link SolveProfiler} to the controller via a request attribute when an
+ * optimize request asks for a profile, with its validate phase already started: bean
+ * validation runs right after the body is read.
+ *
+ * The body's "profile" flag is only known once the body is parsed, so parsing can only be
+ * timed when the {@value #PROFILE_HEADER} header asks for a profile up front; the start of
+ * parsing is then captured as a bare timestamp and parse reports wall time only. Requests
+ * without the header or the flag pay one header lookup and one field read.
+ */
+@ControllerAdvice(assignableTypes = LoadOptimizerController.class)
+public class ProfilingRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+    public static final String PROFILE_HEADER = "X-Planner-Profile";
+
+    private static final String PARSE_START = ProfilingRequestBodyAdvice.class.getName() + ".parseStart";
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return OptimizeRequest.class.equals(targetType);
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter,
+                                           Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) {
+        if ("true".equalsIgnoreCase(inputMessage.getHeaders().getFirst(PROFILE_HEADER))) {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes != null) {
+                attributes.setAttribute(PARSE_START, System.nanoTime(), RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return inputMessage;
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || !(body instanceof OptimizeRequest request)) {
+            return body;
+        }
+        Object start = attributes.getAttribute(PARSE_START, RequestAttributes.SCOPE_REQUEST);
+        if (start == null && !Boolean.TRUE.equals(request.getProfile())) {
+            return body;
+        }
+
+        // The header implies the body flag, so forwarded shards profile too
+        request.setProfile(true);
+        SolveProfiler profiler = new SolveProfiler();
+        if (start != null) {
+            profiler.recordWallOnly(SolveProfiler.PARSE, (Long) start);
+        }
+        // Bean validation runs right after this, so the validate phase starts here
+        profiler.begin(SolveProfiler.VALIDATE);
+        attributes.setAttribute(SolveProfiler.REQUEST_ATTRIBUTE, profiler, RequestAttributes.SCOPE_REQUEST);
+        return body;
+    }
+}
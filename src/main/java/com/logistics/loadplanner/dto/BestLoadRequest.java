@@ -0,0 +1,74 @@
+package com.logistics.loadplanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.time.LocalDate;
+
+/**
+ * "Best load for this truck" query against the order pool: a truck available at
+ * {@code origin} on {@code date}, taking orders picked up within {@code horizon_days}.
+ */
+public class BestLoadRequest {
+    
+    @NotNull(message = "Truck is required")
+    @Valid
+    private TruckDto truck;
+    
+    @NotBlank(message = "Origin is required")
+    private String origin;
+    
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+    
+    @PositiveOrZero(message = "Horizon must not be negative")
+    @Max(value = 30, message = "Horizon must be at most 30 days")
+    @JsonProperty("horizon_days")
+    private Integer horizonDays;
+    
+    public BestLoadRequest() {
+    }
+    
+    public BestLoadRequest(TruckDto truck, String origin, LocalDate date, Integer horizonDays) {
+        this.truck = truck;
+        this.origin = origin;
+        this.date = date;
+        this.horizonDays = horizonDays;
+    }
+    
+    public TruckDto getTruck() {
+        return truck;
+    }
+    
+    public void setTruck(TruckDto truck) {
+        this.truck = truck;
+    }
+    
+    public String getOrigin() {
+        return origin;
+    }
+    
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public Integer getHorizonDays() {
+        return horizonDays;
+    }
+    
+    public void setHorizonDays(Integer horizonDays) {
+        this.horizonDays = horizonDays;
+    }
+}
@@ -0,0 +1,57 @@
+package com.logistics.loadplanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Cluster membership view. Sent between instances to apply a join/leave, and returned
+ * by the membership endpoints together with the answering instance's URL.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClusterMembers {
+    
+    @JsonProperty("self")
+    private String self;
+    
+    @JsonProperty("members")
+    private List<String> members;
+    
+    // Pooled orders this instance handed to their new owners after the change
+    @JsonProperty("moved_orders")
+    private Integer movedOrders;
+    
+    public ClusterMembers() {
+    }
+    
+    public ClusterMembers(String self, List<String> members, Integer movedOrders) {
+        this.self = self;
+        this.members = members;
+        this.movedOrders = movedOrders;
+    }
+    
+    public String getSelf() {
+        return self;
+    }
+    
+    public void setSelf(String self) {
+        this.self = self;
+    }
+    
+    public List<String> getMembers() {
+        return members;
+    }
+    
+    public void setMembers(List<String> members) {
+        this.members = members;
+    }
+    
+    public Integer getMovedOrders() {
+        return movedOrders;
+    }
+    
+    public void setMovedOrders(Integer movedOrders) {
+        this.movedOrders = movedOrders;
+    }
+}
@@ -0,0 +1,24 @@
+package com.logistics.loadplanner.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class ClusterNodeRequest {
+    
+    @NotBlank(message = "Node URL is required")
+    private String url;
+    
+    public ClusterNodeRequest() {
+    }
+    
+    public ClusterNodeRequest(String url) {
+        this.url = url;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public void setUrl(String url) {
+        this.url = url;
+    }
+}
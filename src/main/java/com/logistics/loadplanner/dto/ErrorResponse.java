@@ -0,0 +1,13 @@
+package com.logistics.loadplanner.dto;
+
+public class ErrorResponse {
+    private final String error;
+    
+    public ErrorResponse(String error) {
+        this.error = error;
+    }
+    
+    public String getError() {
+        return error;
+    }
+}
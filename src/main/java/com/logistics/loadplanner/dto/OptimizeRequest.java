@@ -12,9 +12,12 @@ public class OptimizeRequest {
     private TruckDto truck;
     
     @NotNull(message = "Orders list is required")
-    @Size(max = 25, message = "Maximum 25 orders allowed")
+    @Size(max = 32, message = "Maximum 32 orders allowed")
     @Valid
-    private List<OrderDto> orders;
+    private List<@NotNull(message = "Orders must not contain null entries") OrderDto> orders;
+    
+    // Opt-in solver breakdown in the response
+    private Boolean profile;
     
     public OptimizeRequest() {
     }
@@ -39,4 +42,12 @@ public class OptimizeRequest {
     public void setOrders(List<OrderDto> orders) {
         this.orders = orders;
     }
+    
+    public Boolean getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(Boolean profile) {
+        this.profile = profile;
+    }
 }
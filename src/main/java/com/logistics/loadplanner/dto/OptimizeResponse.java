@@ -1,5 +1,6 @@
 package com.logistics.loadplanner.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 
@@ -26,6 +27,15 @@ public class OptimizeResponse {
     @JsonProperty("utilization_volume_percent")
     private Double utilizationVolumePercent;
     
+    @JsonProperty("profile")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SolveProfile profile;
+    
+    // Set by order pool queries that had to leave compatible orders out of the solve
+    @JsonProperty("candidates_dropped")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer candidatesDropped;
+    
     public OptimizeResponse() {
     }
     
@@ -98,4 +108,20 @@ public class OptimizeResponse {
     public void setUtilizationVolumePercent(Double utilizationVolumePercent) {
         this.utilizationVolumePercent = utilizationVolumePercent;
     }
+    
+    public SolveProfile getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(SolveProfile profile) {
+        this.profile = profile;
+    }
+    
+    public Integer getCandidatesDropped() {
+        return candidatesDropped;
+    }
+    
+    public void setCandidatesDropped(Integer candidatesDropped) {
+        this.candidatesDropped = candidatesDropped;
+    }
 }
@@ -0,0 +1,27 @@
+package com.logistics.loadplanner.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+public class OrderPoolInsertRequest {
+    
+    @NotNull(message = "Orders list is required")
+    @Valid
+    private List<@NotNull(message = "Orders must not contain null entries") OrderDto> orders;
+    
+    public OrderPoolInsertRequest() {
+    }
+    
+    public OrderPoolInsertRequest(List<OrderDto> orders) {
+        this.orders = orders;
+    }
+    
+    public List<OrderDto> getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(List<OrderDto> orders) {
+        this.orders = orders;
+    }
+}
@@ -0,0 +1,39 @@
+package com.logistics.loadplanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Result of an order pool mutation: how many orders it touched and the pool size after it.
+ */
+public class OrderPoolResponse {
+    
+    @JsonProperty("affected")
+    private Integer affected;
+    
+    @JsonProperty("pool_size")
+    private Integer poolSize;
+    
+    public OrderPoolResponse() {
+    }
+    
+    public OrderPoolResponse(Integer affected, Integer poolSize) {
+        this.affected = affected;
+        this.poolSize = poolSize;
+    }
+    
+    public Integer getAffected() {
+        return affected;
+    }
+    
+    public void setAffected(Integer affected) {
+        this.affected = affected;
+    }
+    
+    public Integer getPoolSize() {
+        return poolSize;
+    }
+    
+    public void setPoolSize(Integer poolSize) {
+        this.poolSize = poolSize;
+    }
+}
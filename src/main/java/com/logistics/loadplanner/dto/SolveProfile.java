@@ -0,0 +1,168 @@
+package com.logistics.loadplanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Breakdown of a single solve, returned when the request sets "profile": true.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SolveProfile {
+
+    @JsonProperty("masks_evaluated")
+    private Long masksEvaluated;
+
+    @JsonProperty("states_evaluated")
+    private Long statesEvaluated;
+
+    @JsonProperty("states_stored")
+    private Long statesStored;
+
+    @JsonProperty("rejected")
+    private Map<String, Long> rejected;
+
+    @JsonProperty("table_entries")
+    private Long tableEntries;
+
+    @JsonProperty("table_bytes")
+    private Long tableBytes;
+
+    // heap, direct or mapped
+    @JsonProperty("table_storage")
+    private String tableStorage;
+
+    @JsonProperty("phases")
+    private List<Phase> phases;
+
+    public SolveProfile() {
+    }
+
+    public Long getMasksEvaluated() {
+        return masksEvaluated;
+    }
+
+    public void setMasksEvaluated(Long masksEvaluated) {
+        this.masksEvaluated = masksEvaluated;
+    }
+
+    public Long getStatesEvaluated() {
+        return statesEvaluated;
+    }
+
+    public void setStatesEvaluated(Long statesEvaluated) {
+        this.statesEvaluated = statesEvaluated;
+    }
+
+    public Long getStatesStored() {
+        return statesStored;
+    }
+
+    public void setStatesStored(Long statesStored) {
+        this.statesStored = statesStored;
+    }
+
+    public Map<String, Long> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(Map<String, Long> rejected) {
+        this.rejected = rejected;
+    }
+
+    public Long getTableEntries() {
+        return tableEntries;
+    }
+
+    public void setTableEntries(Long tableEntries) {
+        this.tableEntries = tableEntries;
+    }
+
+    public Long getTableBytes() {
+        return tableBytes;
+    }
+
+    public void setTableBytes(Long tableBytes) {
+        this.tableBytes = tableBytes;
+    }
+
+    public String getTableStorage() {
+        return tableStorage;
+    }
+
+    public void setTableStorage(String tableStorage) {
+        this.tableStorage = tableStorage;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public void setPhases(List<Phase> phases) {
+        this.phases = phases;
+    }
+
+    /**
+     * Wall-clock time, thread CPU time and heap allocation of one phase.
+     * CPU and allocation are omitted when the JVM cannot measure them.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Phase {
+
+        @JsonProperty("phase")
+        private String phase;
+
+        @JsonProperty("wall_micros")
+        private Long wallMicros;
+
+        @JsonProperty("cpu_micros")
+        private Long cpuMicros;
+
+        @JsonProperty("allocated_bytes")
+        private Long allocatedBytes;
+
+        public Phase() {
+        }
+
+        public Phase(String phase, Long wallMicros, Long cpuMicros, Long allocatedBytes) {
+            this.phase = phase;
+            this.wallMicros = wallMicros;
+            this.cpuMicros = cpuMicros;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        public void setPhase(String phase) {
+            this.phase = phase;
+        }
+
+        public Long getWallMicros() {
+            return wallMicros;
+        }
+
+        public void setWallMicros(Long wallMicros) {
+            this.wallMicros = wallMicros;
+        }
+
+        public Long getCpuMicros() {
+            return cpuMicros;
+        }
+
+        public void setCpuMicros(Long cpuMicros) {
+            this.cpuMicros = cpuMicros;
+        }
+
+        public Long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        public void setAllocatedBytes(Long allocatedBytes) {
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.logistics.loadplanner.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * One order list answered for several trucks (e.g. trailer types) in a single pass.
+ */
+public class SweepRequest {
+    
+    @NotEmpty(message = "At least one truck is required")
+    @Size(max = 100, message = "Maximum 100 trucks allowed")
+    @Valid
+    private List<@NotNull(message = "Trucks must not contain null entries") TruckDto> trucks;
+    
+    @NotNull(message = "Orders list is required")
+    @Size(max = 32, message = "Maximum 32 orders allowed")
+    @Valid
+    private List<@NotNull(message = "Orders must not contain null entries") OrderDto> orders;
+    
+    public SweepRequest() {
+    }
+    
+    public SweepRequest(List<TruckDto> trucks, List<OrderDto> orders) {
+        this.trucks = trucks;
+        this.orders = orders;
+    }
+    
+    public List<TruckDto> getTrucks() {
+        return trucks;
+    }
+    
+    public void setTrucks(List<TruckDto> trucks) {
+        this.trucks = trucks;
+    }
+    
+    public List<OrderDto> getOrders() {
+        return orders;
+    }
+    
+    public void setOrders(List<OrderDto> orders) {
+        this.orders = orders;
+    }
+}
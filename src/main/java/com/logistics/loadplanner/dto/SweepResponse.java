@@ -0,0 +1,26 @@
+package com.logistics.loadplanner.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+public class SweepResponse {
+    
+    // One entry per requested truck, in request order
+    @JsonProperty("results")
+    private List<OptimizeResponse> results;
+    
+    public SweepResponse() {
+    }
+    
+    public SweepResponse(List<OptimizeResponse> results) {
+        this.results = results;
+    }
+    
+    public List<OptimizeResponse> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<OptimizeResponse> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,319 @@
+package com.logistics.loadplanner.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.logistics.loadplanner.config.BulkProperties;
+import com.logistics.loadplanner.dto.ErrorResponse;
+import com.logistics.loadplanner.dto.OptimizeRequest;
+import com.logistics.loadplanner.dto.OrderDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Solves an NDJSON file of optimize requests offline, without the HTTP layer.
+ *
+ * Pipeline:
+ * 1. read: one thread walks the memory-mapped input and hands out each line as a slice
+ * 2. parse: a pool deserializes and validates the request
+ * 3. solve: a pool solves it and serializes the response
+ * 4. write: the calling thread writes results in input order
+ *
+ * Reading runs at most {@code window} requests ahead of writing, which bounds memory
+ * and lets the writer simply wait on the oldest request. A request that fails to parse,
+ * validate or solve produces an {@link ErrorResponse} line, so output line k always
+ * answers input request k.
+ *
+ * Every {@code checkpointInterval} requests the output is forced to disk and the input
+ * and output offsets are saved. A rerun with the same settings truncates any output
+ * written after the last checkpoint and continues from there.
+ */
+@Service
+public class BulkPlanningService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkPlanningService.class);
+
+    private final LoadOptimizationService optimizationService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /**
+     * Progress saved at a checkpoint.
+     */
+    record Checkpoint(
+        @JsonProperty("input") String input,
+        @JsonProperty("input_size") long inputSize,
+        @JsonProperty("input_offset") long inputOffset,
+        @JsonProperty("output_offset") long outputOffset,
+        @JsonProperty("instances") long instances) {
+    }
+
+    /**
+     * Totals of one run; {@code resumed} requests were already done by an earlier run.
+     */
+    public record Summary(long instances, long failed, long resumed, long elapsedNanos) {
+
+        public double instancesPerSecond() {
+            return elapsedNanos > 0 ? instances * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    // One request in flight; seq < 0 marks the end of input
+    private record Pending(long seq, long inputOffset, CompletableFuture<Line> result) {
+    }
+
+    // Serialized response or error for one request
+    private record Line(byte[] json, boolean failed) {
+    }
+
+    public BulkPlanningService(LoadOptimizationService optimizationService, ObjectMapper objectMapper,
+                               Validator validator) {
+        this.optimizationService = optimizationService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public Summary run(BulkProperties properties) throws IOException {
+        Path input = Path.of(properties.getInput()).toAbsolutePath().normalize();
+        Path output = Path.of(properties.getOutput());
+        Path checkpointFile = Path.of(properties.getCheckpoint());
+        Checkpoint start = readCheckpoint(checkpointFile, input, output);
+        if (start.instances() > 0) {
+            log.info("Resuming bulk planning of {} after {} requests", input, start.instances());
+        }
+
+        ExecutorService parsePool = Executors.newFixedThreadPool(properties.getParseThreads(), named("bulk-parse"));
+        ExecutorService solvePool = Executors.newFixedThreadPool(properties.getSolveThreads(), named("bulk-solve"));
+        BlockingQueue<Pending> inFlight = new ArrayBlockingQueue<>(Math.max(1, properties.getWindow()));
+        Thread reader = null;
+
+        try (MappedLineReader lines = new MappedLineReader(input, start.inputOffset());
+             FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Drop anything written after the last checkpoint
+            channel.truncate(start.outputOffset());
+            channel.position(start.outputOffset());
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+
+            reader = new Thread(() -> read(lines, start.instances(), parsePool, solvePool, inFlight), "bulk-read");
+            reader.start();
+
+            long begin = System.nanoTime();
+            long reportEvery = TimeUnit.SECONDS.toNanos(Math.max(1, properties.getReportIntervalSeconds()));
+            long lastReport = begin;
+            long reportedInstances = 0;
+            long instances = 0;
+            long failed = 0;
+            long outputOffset = start.outputOffset();
+
+            while (true) {
+                Pending pending = take(inFlight);
+                if (pending.seq() < 0) {
+                    // End of input, or the reader failed
+                    pending.result().join();
+                    break;
+                }
+
+                Line line = pending.result().join();
+                out.write(line.json());
+                out.write('\n');
+                outputOffset += line.json().length + 1;
+                instances++;
+                if (line.failed()) {
+                    failed++;
+                }
+
+                if (instances % properties.getCheckpointInterval() == 0) {
+                    out.flush();
+                    channel.force(false);
+                    writeCheckpoint(checkpointFile, new Checkpoint(input.toString(), lines.size(),
+                        pending.inputOffset(), outputOffset, start.instances() + instances));
+                }
+
+                long now = System.nanoTime();
+                if (now - lastReport >= reportEvery) {
+                    log.info("Bulk planning: {} requests, {} /s over the last {} s, {} /s overall",
+                        start.instances() + instances,
+                        String.format("%.1f", (instances - reportedInstances) * 1e9 / (now - lastReport)),
+                        TimeUnit.NANOSECONDS.toSeconds(now - lastReport),
+                        String.format("%.1f", instances * 1e9 / (now - begin)));
+                    lastReport = now;
+                    reportedInstances = instances;
+                }
+            }
+
+            out.flush();
+            channel.force(false);
+            Files.deleteIfExists(checkpointFile);
+
+            Summary summary = new Summary(instances, failed, start.instances(), System.nanoTime() - begin);
+            log.info("Bulk planning finished: {} requests ({} failed, {} resumed) in {} s, {} /s, results in {}",
+                summary.instances(), summary.failed(), summary.resumed(),
+                String.format("%.1f", summary.elapsedNanos() / 1e9),
+                String.format("%.1f", summary.instancesPerSecond()), output);
+            return summary;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        } finally {
+            if (reader != null) {
+                reader.interrupt();
+            }
+            parsePool.shutdownNow();
+            solvePool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reader stage: queues every request as a parse → solve chain, blocking while the
+     * window is full, then queues the end marker. Whatever stops it early, short of the
+     * writer interrupting it, is passed on as a failed end marker so the writer aborts
+     * the run instead of waiting for a marker that never comes.
+     */
+    private void read(MappedLineReader lines, long firstSeq, ExecutorService parsePool, ExecutorService solvePool,
+                      BlockingQueue<Pending> inFlight) {
+        CompletableFuture<Line> end = CompletableFuture.completedFuture(null);
+        try {
+            long seq = firstSeq;
+            ByteBuffer next;
+            while ((next = lines.next()) != null) {
+                ByteBuffer line = next;
+                long number = ++seq;
+                CompletableFuture<Line> result = CompletableFuture
+                    .supplyAsync(() -> parse(line), parsePool)
+                    .thenApplyAsync(request -> new Line(toJson(optimizationService.optimize(request)), false), solvePool)
+                    .exceptionally(e -> failure(number, e));
+                inFlight.put(new Pending(number, lines.offset(), result));
+            }
+        } catch (IOException e) {
+            end = CompletableFuture.failedFuture(new UncheckedIOException(e));
+        } catch (InterruptedException e) {
+            // The writer gave up; nobody is waiting for the end marker
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Throwable e) {
+            end = CompletableFuture.failedFuture(e);
+        }
+
+        try {
+            inFlight.put(new Pending(-1, lines.offset(), end));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private OptimizeRequest parse(ByteBuffer line) {
+        OptimizeRequest request;
+        try {
+            request = objectMapper.readValue(new ByteBufferBackedInputStream(line), OptimizeRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed request: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Validation failed: " + violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(BulkPlanningService::describe)
+                .collect(Collectors.joining("; ")));
+        }
+        for (OrderDto order : request.getOrders()) {
+            if (order.getPickupDate().isAfter(order.getDeliveryDate())) {
+                throw new IllegalArgumentException(String.format(
+                    "Order %s: pickup_date must be before or equal to delivery_date", order.getId()));
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Error line for a request that could not be parsed, validated or solved.
+     */
+    private Line failure(long seq, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return new Line(toJson(new ErrorResponse("Request " + seq + ": " + cause.getMessage())), true);
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private Checkpoint readCheckpoint(Path checkpointFile, Path input, Path output) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return new Checkpoint(input.toString(), Files.size(input), 0, 0, 0);
+        }
+
+        Checkpoint checkpoint = objectMapper.readValue(checkpointFile.toFile(), Checkpoint.class);
+        if (!checkpoint.input().equals(input.toString()) || checkpoint.inputSize() != Files.size(input)) {
+            throw new IllegalStateException("Checkpoint " + checkpointFile + " was written for " + checkpoint.input()
+                + " (" + checkpoint.inputSize() + " bytes); remove it to start over");
+        }
+        if (!Files.exists(output) || Files.size(output) < checkpoint.outputOffset()) {
+            throw new IllegalStateException("Output " + output + " is shorter than checkpoint " + checkpointFile
+                + " records; remove the checkpoint to start over");
+        }
+        return checkpoint;
+    }
+
+    void writeCheckpoint(Path checkpointFile, Checkpoint checkpoint) throws IOException {
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), checkpoint);
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Pending take(BlockingQueue<Pending> inFlight) {
+        try {
+            return inFlight.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bulk results", e);
+        }
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + " - " + violation.getMessage();
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
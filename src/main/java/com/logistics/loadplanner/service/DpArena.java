@@ -0,0 +1,81 @@
+package com.logistics.loadplanner.service;
+
+/**
+ * Reusable working memory for one solve of up to {@code maxOrders} orders.
+ *
+ * Layout:
+ * - {@code feasible}: one bit per subset mask, set when the subset is a valid load
+ * - half tables: weight, volume, payout, earliest pickup and latest delivery for every
+ *   subset of the low and of the high half of the orders. Any subset's totals are the
+ *   combination of its low-half and high-half entries, so they never need per-mask storage.
+ *
+ * For 25 orders this is 4 MiB of bits plus 256 KiB of half tables, instead of one
+ * object per mask. For 32 orders the bits are 512 MiB and live off-heap, while the half
+ * tables stay on the heap at 4 MiB.
+ */
+final class DpArena {
+
+    final int maxOrders;
+    final SubsetBits feasible;
+
+    final long[] loWeight;
+    final long[] loVolume;
+    final long[] loPayout;
+    final int[] loMinPickup;
+    final int[] loMaxDelivery;
+
+    final long[] hiWeight;
+    final long[] hiVolume;
+    final long[] hiPayout;
+    final int[] hiMinPickup;
+    final int[] hiMaxDelivery;
+
+    DpArena(int maxOrders) {
+        this(maxOrders, new SubsetBits.Heap(maxOrders));
+    }
+
+    DpArena(int maxOrders, SubsetBits feasible) {
+        this.maxOrders = maxOrders;
+        this.feasible = feasible;
+
+        int loSize = 1 << lowBits(maxOrders);
+        int hiSize = 1 << (maxOrders - lowBits(maxOrders));
+        this.loWeight = new long[loSize];
+        this.loVolume = new long[loSize];
+        this.loPayout = new long[loSize];
+        this.loMinPickup = new int[loSize];
+        this.loMaxDelivery = new int[loSize];
+        this.hiWeight = new long[hiSize];
+        this.hiVolume = new long[hiSize];
+        this.hiPayout = new long[hiSize];
+        this.hiMinPickup = new int[hiSize];
+        this.hiMaxDelivery = new int[hiSize];
+    }
+
+    /**
+     * Clears the feasibility bits a solve over {@code n} orders will read. The half
+     * tables are fully rewritten by every solve and need no reset.
+     */
+    void reset(int n) {
+        feasible.clear(n);
+    }
+
+    long bytes() {
+        return bytesFor(maxOrders);
+    }
+
+    /**
+     * Orders assigned to the low half; the rest go to the high half.
+     */
+    static int lowBits(int n) {
+        return n / 2;
+    }
+
+    /**
+     * Bytes used by a solve over {@code n} orders (feasibility bits plus half tables).
+     */
+    static long bytesFor(int n) {
+        long halfEntries = (1L << lowBits(n)) + (1L << (n - lowBits(n)));
+        return SubsetBits.wordsFor(n) * 8L + halfEntries * (3 * 8 + 2 * 4);
+    }
+}
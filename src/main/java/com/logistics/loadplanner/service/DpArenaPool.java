@@ -0,0 +1,219 @@
+package com.logistics.loadplanner.service;
+
+import com.logistics.loadplanner.config.DpProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out {@link DpArena}s, so a solve borrows a table instead of allocating and zeroing
+ * a fresh {@code 1 << n} one. The backend is chosen per solve from the estimated table size:
+ *
+ * - Up to {@code planner.dp.heap-table-max-bytes}: a heap arena. Arenas sized for the
+ *   largest such order count (at most {@link LoadOptimizationService#MAX_ORDERS}) are pooled.
+ *   Idle arenas are kept up to {@code planner.dp.arena-pool-max-bytes}; beyond that, returned
+ *   arenas are dropped and left to the GC. The pool is most-recently-used first, so the
+ *   arena handed out is the one most likely to still be in cache.
+ * - Above it: an arena whose feasibility bits are off-heap ({@code planner.dp.off-heap-mode}),
+ *   so a 28-32 order table adds no GC work and does not count against the heap limit.
+ *   At most {@code planner.dp.off-heap-max-concurrent} such solves run at once; later ones
+ *   wait until the solve deadline and then fail with {@link SolveDeadlineExceededException}.
+ *   A returned off-heap arena is kept for the next large solve only if it fits under
+ *   {@code planner.dp.arena-pool-max-bytes} together with the idle heap arenas; otherwise it
+ *   is dropped and its memory is freed once the buffer is unreachable.
+ *
+ * A worker thread holds at most one arena while it solves and returns it afterwards.
+ *
+ * Exposes planner.dp.arena.hits / misses / discards, planner.dp.arena.pooled.bytes,
+ * planner.dp.offheap.solves and planner.dp.offheap.bytes.
+ */
+@Component
+public class DpArenaPool implements MeterBinder {
+
+    private final int maxOrders;
+    private final long heapTableMaxBytes;
+    private final long maxPooledBytes;
+    private final ConcurrentLinkedDeque<DpArena> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicLong pooledBytes = new AtomicLong();
+
+    private final DpProperties.OffHeapMode offHeapMode;
+    private final Path offHeapDir;
+    private final Semaphore offHeapPermits;
+    private final ConcurrentLinkedDeque<DpArena> idleOffHeap = new ConcurrentLinkedDeque<>();
+    private final AtomicLong offHeapBytes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong discards = new AtomicLong();
+    private final AtomicLong offHeapSolves = new AtomicLong();
+
+    public DpArenaPool(DpProperties properties) {
+        this.heapTableMaxBytes = properties.getHeapTableMaxBytes();
+        this.maxOrders = largestHeapOrders(heapTableMaxBytes);
+        this.maxPooledBytes = properties.getArenaPoolMaxBytes();
+        this.offHeapMode = properties.getOffHeapMode();
+        this.offHeapDir = Path.of(properties.getOffHeapDir() != null
+            ? properties.getOffHeapDir() : System.getProperty("java.io.tmpdir"));
+        this.offHeapPermits = new Semaphore(Math.max(1, properties.getOffHeapMaxConcurrent()), true);
+    }
+
+    /**
+     * Borrows an arena with the bits for {@code n} orders cleared.
+     *
+     * @param deadlineNanos {@link System#nanoTime} by which an off-heap table must be free
+     * @throws SolveDeadlineExceededException if no off-heap table became free in time
+     */
+    DpArena borrow(int n, long deadlineNanos) {
+        if (n > LoadOptimizationService.MAX_SINGLE_LANE_ORDERS) {
+            throw new IllegalArgumentException(
+                "Maximum " + LoadOptimizationService.MAX_SINGLE_LANE_ORDERS + " orders allowed");
+        }
+        if (DpArena.bytesFor(n) > heapTableMaxBytes) {
+            return borrowOffHeap(n, deadlineNanos);
+        }
+        if (n > maxOrders) {
+            // Within the heap budget but larger than pooled arenas; used once
+            misses.incrementAndGet();
+            return new DpArena(n);
+        }
+
+        DpArena arena = idle.pollFirst();
+        if (arena != null) {
+            pooledBytes.addAndGet(-arena.bytes());
+            hits.incrementAndGet();
+            arena.reset(n);
+            return arena;
+        }
+        misses.incrementAndGet();
+        return new DpArena(maxOrders);
+    }
+
+    void release(DpArena arena) {
+        if (arena.feasible instanceof SubsetBits.OffHeap) {
+            if (reservePooled(arena.bytes())) {
+                idleOffHeap.offerFirst(arena);
+            } else {
+                // Its buffer is freed once unreachable
+                offHeapBytes.addAndGet(-SubsetBits.wordsFor(arena.maxOrders) * 8L);
+            }
+            offHeapPermits.release();
+            return;
+        }
+        if (arena.maxOrders != maxOrders) {
+            return;
+        }
+        if (reservePooled(arena.bytes())) {
+            idle.offerFirst(arena);
+        }
+    }
+
+    /**
+     * Adds {@code size} to the idle total unless that would pass the pool cap.
+     */
+    private boolean reservePooled(long size) {
+        long current;
+        do {
+            current = pooledBytes.get();
+            if (current + size > maxPooledBytes) {
+                discards.incrementAndGet();
+                return false;
+            }
+        } while (!pooledBytes.compareAndSet(current, current + size));
+        return true;
+    }
+
+    private DpArena borrowOffHeap(int n, long deadlineNanos) {
+        try {
+            long wait = deadlineNanos - System.nanoTime();
+            if (!offHeapPermits.tryAcquire(Math.max(0, wait), TimeUnit.NANOSECONDS)) {
+                throw new SolveDeadlineExceededException(
+                    "No off-heap DP table became free before the solve deadline");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for an off-heap DP table");
+        }
+
+        try {
+            offHeapSolves.incrementAndGet();
+            DpArena arena = idleOffHeap.pollFirst();
+            if (arena != null) {
+                pooledBytes.addAndGet(-arena.bytes());
+            }
+            if (arena != null && arena.maxOrders >= n) {
+                arena.reset(n);
+                return arena;
+            }
+            if (arena != null) {
+                // Too small for this solve; its buffer is freed once unreachable
+                offHeapBytes.addAndGet(-SubsetBits.wordsFor(arena.maxOrders) * 8L);
+            }
+
+            SubsetBits bits = offHeapMode == DpProperties.OffHeapMode.DIRECT
+                ? SubsetBits.OffHeap.direct(n)
+                : SubsetBits.OffHeap.mapped(n, offHeapDir);
+            offHeapBytes.addAndGet(SubsetBits.wordsFor(n) * 8L);
+            return new DpArena(n, bits);
+        } catch (RuntimeException | Error e) {
+            offHeapPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Largest order count, up to {@link LoadOptimizationService#MAX_ORDERS}, whose table
+     * fits the heap budget; 0 when none does.
+     */
+    private static int largestHeapOrders(long heapTableMaxBytes) {
+        int n = 0;
+        while (n < LoadOptimizationService.MAX_ORDERS && DpArena.bytesFor(n + 1) <= heapTableMaxBytes) {
+            n++;
+        }
+        return n;
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    long offHeapSolves() {
+        return offHeapSolves.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("planner.dp.arena.hits", hits, AtomicLong::get)
+            .description("Solves that reused a pooled DP arena")
+            .register(registry);
+        FunctionCounter.builder("planner.dp.arena.misses", misses, AtomicLong::get)
+            .description("Solves that had to allocate a DP arena")
+            .register(registry);
+        FunctionCounter.builder("planner.dp.arena.discards", discards, AtomicLong::get)
+            .description("Arenas dropped because the pool was at its memory cap")
+            .register(registry);
+        Gauge.builder("planner.dp.arena.pooled.bytes", pooledBytes, AtomicLong::get)
+            .description("Memory held by idle pooled DP arenas, heap and off-heap")
+            .baseUnit("bytes")
+            .register(registry);
+        FunctionCounter.builder("planner.dp.offheap.solves", offHeapSolves, AtomicLong::get)
+            .description("Solves whose DP table exceeded the heap budget and ran off-heap")
+            .register(registry);
+        Gauge.builder("planner.dp.offheap.bytes", offHeapBytes, AtomicLong::get)
+            .description("Off-heap memory reserved for large DP tables")
+            .baseUnit("bytes")
+            .register(registry);
+    }
+}
@@ -0,0 +1,23 @@
+package com.logistics.loadplanner.service;
+
+/**
+ * Origin → destination pair. Loads never mix lanes, so the lane is the natural partition
+ * key for indexing and splitting work.
+ *
+ * Lanes compare by value. They are not interned: origin and destination are free-form
+ * client strings, so a global table would grow with every lane ever seen.
+ */
+public record Lane(String origin, String destination) {
+
+    /**
+     * Stable string form ("origin|destination"), used as the shard ring key.
+     */
+    public String key() {
+        return origin + "|" + destination;
+    }
+
+    @Override
+    public String toString() {
+        return origin + " → " + destination;
+    }
+}
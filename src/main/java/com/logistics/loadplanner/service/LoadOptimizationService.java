@@ -1,248 +1,624 @@
 package com.logistics.loadplanner.service;
 
+import com.logistics.loadplanner.config.DpProperties;
+import com.logistics.loadplanner.config.SolverProperties;
 import com.logistics.loadplanner.dto.OrderDto;
 import com.logistics.loadplanner.dto.OptimizeRequest;
 import com.logistics.loadplanner.dto.OptimizeResponse;
 import com.logistics.loadplanner.dto.TruckDto;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class LoadOptimizationService {
     
+    /** Largest order count a single optimize call accepts. */
+    public static final int MAX_ORDERS = 25;
+    
     /**
-     * Optimized order state with pre-computed values for faster access.
+     * Largest order count accepted when every order is on one lane. Tables this size
+     * exceed the heap budget and are solved off-heap (see {@link DpArenaPool}); 32 is the
+     * most an unsigned int mask can address.
      */
-    private static class OrderState {
-        final int index;
-        final long payoutCents;
-        final long weightLbs;
-        final long volumeCuft;
-        final String origin;
-        final String destination;
-        final LocalDate pickupDate;
-        final LocalDate deliveryDate;
-        final boolean isHazmat;
-        final int routeHash; // Pre-computed hash for route comparison
-        
-        OrderState(int index, OrderDto order) {
-            this.index = index;
-            this.payoutCents = order.getPayoutCents();
-            this.weightLbs = order.getWeightLbs();
-            this.volumeCuft = order.getVolumeCuft();
-            this.origin = order.getOrigin();
-            this.destination = order.getDestination();
-            this.pickupDate = order.getPickupDate();
-            this.deliveryDate = order.getDeliveryDate();
-            this.isHazmat = order.getIsHazmat();
-            // Pre-compute route hash for faster comparison
-            this.routeHash = (origin + "|" + destination).hashCode();
-        }
+    public static final int MAX_SINGLE_LANE_ORDERS = 32;
+    
+    // Outcomes of checkCompatibilityFast; non-zero values identify the failing check
+    private static final int COMPATIBLE = 0;
+    private static final int ROUTE_MISMATCH = 1;
+    private static final int HAZMAT_CONFLICT = 2;
+    private static final int TIME_WINDOW_CONFLICT = 3;
+    
+    // Masks between checks for cancellation of the solving thread and for the deadline
+    private static final int INTERRUPT_CHECK_MASK = (1 << 16) - 1;
+    
+    private final DpArenaPool arenaPool;
+    private final SolverPool solverPool;
+    private final long deadlineMs;
+    
+    public LoadOptimizationService() {
+        this(new DpArenaPool(new DpProperties()));
+    }
+    
+    public LoadOptimizationService(DpArenaPool arenaPool) {
+        this(arenaPool, null);
+    }
+    
+    @Autowired
+    public LoadOptimizationService(DpArenaPool arenaPool, SolverPool solverPool) {
+        this.arenaPool = arenaPool;
+        this.solverPool = solverPool;
+        this.deadlineMs = solverPool != null ? solverPool.deadlineMs() : new SolverProperties().getDeadlineMs();
     }
     
     /**
-     * Solution state for DP table.
+     * Orders in struct-of-arrays form with pre-computed values for faster access.
      */
-    private static class Solution {
-        final long payoutCents;
-        final long weightLbs;
-        final long volumeCuft;
-        final int mask;
-        final int routeHash; // Cached route hash for compatibility checks
-        final boolean hasHazmat; // Cached hazmat flag
-        final LocalDate minPickupDate; // Cached min pickup for time window checks
-        final LocalDate maxDeliveryDate; // Cached max delivery for time window checks
-        
-        Solution(long payoutCents, long weightLbs, long volumeCuft, int mask,
-                 int routeHash, boolean hasHazmat, LocalDate minPickup, LocalDate maxDelivery) {
-            this.payoutCents = payoutCents;
-            this.weightLbs = weightLbs;
-            this.volumeCuft = volumeCuft;
-            this.mask = mask;
-            this.routeHash = routeHash;
-            this.hasHazmat = hasHazmat;
-            this.minPickupDate = minPickup;
-            this.maxDeliveryDate = maxDelivery;
-        }
-        
-        // Constructor for empty solution
-        Solution() {
-            this.payoutCents = 0;
-            this.weightLbs = 0;
-            this.volumeCuft = 0;
-            this.mask = 0;
-            this.routeHash = 0;
-            this.hasHazmat = false;
-            this.minPickupDate = null;
-            this.maxDeliveryDate = null;
+    private static final class OrderTable {
+        final int n;
+        final long[] payoutCents;
+        final long[] weightLbs;
+        final long[] volumeCuft;
+        final int[] pickupDay;   // epoch day
+        final int[] deliveryDay; // epoch day
+        final int[] laneId;      // index of the order's lane within this request
+        final int hazmatMask;    // bit i set when order i is hazmat
+        final int lanes;         // distinct lanes in the request
+        
+        OrderTable(List<OrderDto> orders) {
+            this.n = orders.size();
+            this.payoutCents = new long[n];
+            this.weightLbs = new long[n];
+            this.volumeCuft = new long[n];
+            this.pickupDay = new int[n];
+            this.deliveryDay = new int[n];
+            this.laneId = new int[n];
+            
+            Map<Lane, Integer> lanes = new HashMap<>();
+            int hazmat = 0;
+            for (int i = 0; i < n; i++) {
+                OrderDto order = orders.get(i);
+                payoutCents[i] = order.getPayoutCents();
+                weightLbs[i] = order.getWeightLbs();
+                volumeCuft[i] = order.getVolumeCuft();
+                pickupDay[i] = (int) order.getPickupDate().toEpochDay();
+                deliveryDay[i] = (int) order.getDeliveryDate().toEpochDay();
+                // Lanes compare by value, exactly, unlike hashes of the route string
+                laneId[i] = lanes.computeIfAbsent(new Lane(order.getOrigin(), order.getDestination()),
+                    lane -> lanes.size());
+                if (order.getIsHazmat()) {
+                    hazmat |= 1 << i;
+                }
+            }
+            this.hazmatMask = hazmat;
+            this.lanes = lanes.size();
+        }
+        
+        /**
+         * The orders at {@code indices} (ascending) of {@code parent}, in the same order.
+         */
+        OrderTable(OrderTable parent, int[] indices) {
+            this.n = indices.length;
+            this.payoutCents = new long[n];
+            this.weightLbs = new long[n];
+            this.volumeCuft = new long[n];
+            this.pickupDay = new int[n];
+            this.deliveryDay = new int[n];
+            this.laneId = new int[n];
+            
+            int hazmat = 0;
+            boolean[] seenLanes = new boolean[parent.lanes];
+            int laneCount = 0;
+            for (int i = 0; i < n; i++) {
+                int from = indices[i];
+                payoutCents[i] = parent.payoutCents[from];
+                weightLbs[i] = parent.weightLbs[from];
+                volumeCuft[i] = parent.volumeCuft[from];
+                pickupDay[i] = parent.pickupDay[from];
+                deliveryDay[i] = parent.deliveryDay[from];
+                laneId[i] = parent.laneId[from];
+                if (!seenLanes[laneId[i]]) {
+                    seenLanes[laneId[i]] = true;
+                    laneCount++;
+                }
+                if ((parent.hazmatMask & (1 << from)) != 0) {
+                    hazmat |= 1 << i;
+                }
+            }
+            this.hazmatMask = hazmat;
+            this.lanes = laneCount;
+        }
+        
+        long payoutOf(int mask) {
+            long payout = 0;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                payout += payoutCents[Integer.numberOfTrailingZeros(rest)];
+            }
+            return payout;
         }
     }
     
     public OptimizeResponse optimize(OptimizeRequest request) {
+        SolveProfiler profiler = Boolean.TRUE.equals(request.getProfile()) ? new SolveProfiler() : null;
+        return optimize(request, profiler);
+    }
+    
+    /**
+     * Solves the request, recording a breakdown into {@code profiler} when it is non-null.
+     * The profiler's phases that precede the solve (parse, validate) are owned by the caller.
+     */
+    public OptimizeResponse optimize(OptimizeRequest request, SolveProfiler profiler) {
         TruckDto truck = request.getTruck();
         List<OrderDto> orders = request.getOrders();
+        final boolean profiling = profiler != null;
         
         // Edge case: empty orders
         if (orders == null || orders.isEmpty()) {
-            return new OptimizeResponse(
+            OptimizeResponse response = new OptimizeResponse(
                 truck.getId(),
                 Collections.emptyList(),
                 0L, 0L, 0L,
                 truck.getMaxWeightLbs(), truck.getMaxVolumeCuft()
             );
+            if (profiling) {
+                response.setProfile(profiler.toProfile());
+            }
+            return response;
         }
         
         // Validate order count
-        if (orders.size() > 25) {
-            throw new IllegalArgumentException("Maximum 25 orders allowed");
+        if (orders.size() > MAX_SINGLE_LANE_ORDERS) {
+            throw new IllegalArgumentException(orderLimitMessage());
         }
         
+        if (profiling) profiler.begin(SolveProfiler.PRE_PROCESS);
+        
         // Convert to internal state
-        List<OrderState> orderStates = new ArrayList<>();
-        for (int i = 0; i < orders.size(); i++) {
-            orderStates.add(new OrderState(i, orders.get(i)));
+        OrderTable table = new OrderTable(orders);
+        checkOrderCount(table);
+        long[] maxWeights = {truck.getMaxWeightLbs()};
+        long[] maxVolumes = {truck.getMaxVolumeCuft()};
+        
+        if (profiling) {
+            profiler.end();
+            profiler.begin(SolveProfiler.SOLVE);
+        }
+        
+        // A fanned-out solve is profiled as one phase with the counters of every part
+        long deadline = deadline();
+        int bestMask = solverPool != null && solverPool.isEnabled()
+            ? solveInParts(table, maxWeights, maxVolumes, profiler, deadline)[0]
+            : solve(table, maxWeights, maxVolumes, profiler, deadline)[0];
+        
+        if (profiling) {
+            profiler.end();
+            profiler.begin(SolveProfiler.EXTRACT);
+        }
+        
+        OptimizeResponse response = toResponse(truck, orders, table, bestMask);
+        if (profiling) {
+            response.setProfile(profiler.toProfile());
+        }
+        return response;
+    }
+    
+    /**
+     * Answers the same orders for several trucks with one subset enumeration.
+     * 
+     * Route, hazmat and time-window feasibility do not depend on capacity, and capacity
+     * is monotone (a subset of a load that fits also fits). So a subset is feasible for a
+     * truck exactly when it is feasible for the envelope of all trucks (largest weight,
+     * largest volume) and fits that truck. The DP runs once under the envelope and each
+     * feasible subset is offered to every truck.
+     * 
+     * @return one response per truck, in the order given
+     */
+    public List<OptimizeResponse> sweep(List<TruckDto> trucks, List<OrderDto> orders) {
+        if (trucks == null || trucks.isEmpty()) {
+            throw new IllegalArgumentException("At least one truck is required");
         }
         
-        int n = orderStates.size();
-        int maxMask = 1 << n;
-        long maxWeight = truck.getMaxWeightLbs();
-        long maxVolume = truck.getMaxVolumeCuft();
+        List<OptimizeResponse> responses = new ArrayList<>(trucks.size());
         
-        // DP: dp[mask] = best solution for subset represented by mask
-        Solution[] dp = new Solution[maxMask];
-        dp[0] = new Solution();
+        // Edge case: empty orders
+        if (orders == null || orders.isEmpty()) {
+            for (TruckDto truck : trucks) {
+                responses.add(new OptimizeResponse(truck.getId(), Collections.emptyList(), 0L, 0L, 0L,
+                    truck.getMaxWeightLbs(), truck.getMaxVolumeCuft()));
+            }
+            return responses;
+        }
         
-        Solution bestSolution = dp[0];
-        long bestPayout = 0;
+        // Validate order count
+        if (orders.size() > MAX_SINGLE_LANE_ORDERS) {
+            throw new IllegalArgumentException(orderLimitMessage());
+        }
         
-        // Iterate through all possible subsets
-        for (int mask = 1; mask < maxMask; mask++) {
-            Solution best = null;
-            long bestCandidatePayout = -1;
-            
-            // Try adding each order to the subset
-            for (int i = 0; i < n; i++) {
-                if ((mask & (1 << i)) == 0) continue;
-                
-                int prevMask = mask ^ (1 << i);
-                Solution prev = dp[prevMask];
-                
-                if (prev == null) continue;
-                
-                OrderState order = orderStates.get(i);
-                
-                // Early pruning: Check weight and volume constraints first (fastest check)
-                long newWeight = prev.weightLbs + order.weightLbs;
-                long newVolume = prev.volumeCuft + order.volumeCuft;
-                
-                if (newWeight > maxWeight || newVolume > maxVolume) {
-                    continue;
-                }
-                
-                // Optimized compatibility check using cached values
-                if (!isCompatibleFast(order, prev)) {
-                    continue;
-                }
-                
-                long newPayout = prev.payoutCents + order.payoutCents;
-                
-                // Early pruning: Skip if this can't improve best solution
-                if (newPayout <= bestPayout) {
+        OrderTable table = new OrderTable(orders);
+        checkOrderCount(table);
+        long[] maxWeights = new long[trucks.size()];
+        long[] maxVolumes = new long[trucks.size()];
+        for (int t = 0; t < trucks.size(); t++) {
+            maxWeights[t] = trucks.get(t).getMaxWeightLbs();
+            maxVolumes[t] = trucks.get(t).getMaxVolumeCuft();
+        }
+        
+        // Same fan-out as optimize when the solver pool is on
+        long deadline = deadline();
+        int[] bestMasks = solverPool != null && solverPool.isEnabled()
+            ? solveInParts(table, maxWeights, maxVolumes, null, deadline)
+            : solve(table, maxWeights, maxVolumes, null, deadline);
+        
+        for (int t = 0; t < trucks.size(); t++) {
+            responses.add(toResponse(trucks.get(t), orders, table, bestMasks[t]));
+        }
+        return responses;
+    }
+    
+    /**
+     * More than {@link #MAX_ORDERS} orders are only accepted on a single lane: a load never
+     * mixes lanes, and a large multi-lane request is better split by lane by the caller.
+     */
+    private static void checkOrderCount(OrderTable table) {
+        if (table.n > MAX_ORDERS && table.lanes > 1) {
+            throw new IllegalArgumentException(orderLimitMessage());
+        }
+    }
+    
+    private static String orderLimitMessage() {
+        return "Maximum " + MAX_ORDERS + " orders allowed (" + MAX_SINGLE_LANE_ORDERS
+            + " when all orders share one lane)";
+    }
+    
+    /**
+     * {@link System#nanoTime} by which a solve starting now must finish, whether it fans
+     * out or runs on the request thread.
+     */
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+    }
+    
+    /**
+     * Borrows an arena, fills its half tables and runs the DP for the given capacities.
+     */
+    private int[] solve(OrderTable table, long[] maxWeights, long[] maxVolumes, SolveProfiler profiler,
+                        long deadlineNanos) {
+        int n = table.n;
+        DpArena arena = arenaPool.borrow(n, deadlineNanos);
+        try {
+            int lowBits = DpArena.lowBits(n);
+            fillHalfTables(table, 0, lowBits, arena.loWeight, arena.loVolume, arena.loPayout,
+                arena.loMinPickup, arena.loMaxDelivery);
+            fillHalfTables(table, lowBits, n - lowBits, arena.hiWeight, arena.hiVolume, arena.hiPayout,
+                arena.hiMinPickup, arena.hiMaxDelivery);
+            return search(table, arena, maxWeights, maxVolumes, profiler, deadlineNanos);
+        } finally {
+            arenaPool.release(arena);
+        }
+    }
+    
+    /**
+     * Splits the request into independent subproblems and solves them in one
+     * {@link SubproblemScope} on the solver pool:
+     * - one DP per lane over its non-hazmat orders, since a load never mixes lanes
+     * - each hazmat order alone, since a hazmat load is a singleton; these only need a
+     *   capacity check and are settled here without a task
+     * 
+     * Every feasible load of the full request is feasible in exactly one part, and part
+     * masks keep the original order of indices, so taking the best part (lowest mask on
+     * ties) gives the same answer as one DP over all orders, with hazmat orders taken out
+     * of the exponential part. With several trucks (a sweep) each part runs one DP for all
+     * of them and every truck keeps its own best part.
+     * 
+     * When profiling, each part records into its own profiler on its solver thread, and
+     * their counters are added to {@code profiler} once all parts have finished.
+     * 
+     * @return per truck, the best mask over the full request's indices
+     */
+    private int[] solveInParts(OrderTable table, long[] maxWeights, long[] maxVolumes, SolveProfiler profiler,
+                               long deadlineNanos) {
+        int trucks = maxWeights.length;
+        
+        int[][] byLane = new int[table.lanes][];
+        int[] laneSizes = new int[table.lanes];
+        for (int i = 0; i < table.n; i++) {
+            if ((table.hazmatMask & (1 << i)) == 0) {
+                laneSizes[table.laneId[i]]++;
+            }
+        }
+        for (int lane = 0; lane < table.lanes; lane++) {
+            byLane[lane] = new int[laneSizes[lane]];
+            laneSizes[lane] = 0;
+        }
+        for (int i = 0; i < table.n; i++) {
+            if ((table.hazmatMask & (1 << i)) == 0) {
+                int lane = table.laneId[i];
+                byLane[lane][laneSizes[lane]++] = i;
+            }
+        }
+        
+        long[] bestPayouts = new long[trucks];
+        int[] bestMasks = new int[trucks];
+        List<SolveProfiler> partProfilers = new ArrayList<>();
+        try (SubproblemScope<int[]> scope = solverPool.openScope()) {
+            for (int[] indices : byLane) {
+                if (indices.length == 0) {
                     continue;
                 }
-                
-                // Compute new cached values
-                int newRouteHash = prev.mask == 0 ? order.routeHash : prev.routeHash;
-                boolean newHasHazmat = prev.hasHazmat || order.isHazmat;
-                LocalDate newMinPickup = prev.mask == 0 ? order.pickupDate : 
-                    (order.pickupDate.isBefore(prev.minPickupDate) ? order.pickupDate : prev.minPickupDate);
-                LocalDate newMaxDelivery = prev.mask == 0 ? order.deliveryDate : 
-                    (order.deliveryDate.isAfter(prev.maxDeliveryDate) ? order.deliveryDate : prev.maxDeliveryDate);
-                
-                Solution candidate = new Solution(newPayout, newWeight, newVolume, mask,
-                    newRouteHash, newHasHazmat, newMinPickup, newMaxDelivery);
-                
-                if (best == null || candidate.payoutCents > best.payoutCents) {
-                    best = candidate;
-                    bestCandidatePayout = candidate.payoutCents;
+                OrderTable part = new OrderTable(table, indices);
+                SolveProfiler partProfiler = profiler != null ? new SolveProfiler() : null;
+                if (partProfiler != null) {
+                    partProfilers.add(partProfiler);
                 }
+                scope.fork(() -> {
+                    int[] masks = solve(part, maxWeights, maxVolumes, partProfiler, deadlineNanos);
+                    for (int t = 0; t < trucks; t++) {
+                        int mask = 0;
+                        for (int rest = masks[t]; rest != 0; rest &= rest - 1) {
+                            mask |= 1 << indices[Integer.numberOfTrailingZeros(rest)];
+                        }
+                        masks[t] = mask;
+                    }
+                    return masks;
+                });
             }
             
-            dp[mask] = best;
+            // Hazmat singletons while the lanes solve
+            for (int rest = table.hazmatMask; rest != 0; rest &= rest - 1) {
+                int i = Integer.numberOfTrailingZeros(rest);
+                for (int t = 0; t < trucks; t++) {
+                    if (table.weightLbs[i] <= maxWeights[t] && table.volumeCuft[i] <= maxVolumes[t]
+                            && isBetter(table.payoutCents[i], 1 << i, bestPayouts[t], bestMasks[t])) {
+                        bestPayouts[t] = table.payoutCents[i];
+                        bestMasks[t] = 1 << i;
+                    }
+                }
+            }
             
-            // Update best solution
-            if (best != null && best.payoutCents > bestPayout) {
-                bestSolution = best;
-                bestPayout = best.payoutCents;
+            for (int[] masks : scope.join()) {
+                for (int t = 0; t < trucks; t++) {
+                    long payout = table.payoutOf(masks[t]);
+                    if (isBetter(payout, masks[t], bestPayouts[t], bestMasks[t])) {
+                        bestPayouts[t] = payout;
+                        bestMasks[t] = masks[t];
+                    }
+                }
             }
         }
-        
-        // Extract selected order IDs
+        // join() has returned, so every part's counters are visible here
+        for (SolveProfiler partProfiler : partProfilers) {
+            profiler.absorb(partProfiler.toProfile());
+        }
+        return bestMasks;
+    }
+    
+    /**
+     * Higher payout wins; equal payouts go to the lower (unsigned) mask, matching the
+     * ascending scan of a single DP.
+     */
+    private static boolean isBetter(long payout, int mask, long bestPayout, int bestMask) {
+        return payout > bestPayout
+            || (payout == bestPayout && payout > 0 && Integer.compareUnsigned(mask, bestMask) < 0);
+    }
+    
+    private static OptimizeResponse toResponse(TruckDto truck, List<OrderDto> orders, OrderTable table,
+                                               int bestMask) {
+        // Extract selected order IDs and totals
         List<String> selectedOrderIds = new ArrayList<>();
-        if (bestSolution.mask > 0) {
-            for (int i = 0; i < n; i++) {
-                if ((bestSolution.mask & (1 << i)) != 0) {
-                    selectedOrderIds.add(orders.get(i).getId());
-                }
+        long totalPayout = 0;
+        long totalWeight = 0;
+        long totalVolume = 0;
+        for (int i = 0; i < table.n; i++) {
+            if ((bestMask & (1 << i)) != 0) {
+                selectedOrderIds.add(orders.get(i).getId());
+                totalPayout += table.payoutCents[i];
+                totalWeight += table.weightLbs[i];
+                totalVolume += table.volumeCuft[i];
             }
         }
         
         return new OptimizeResponse(
             truck.getId(),
             selectedOrderIds,
-            bestSolution.payoutCents,
-            bestSolution.weightLbs,
-            bestSolution.volumeCuft,
+            totalPayout,
+            totalWeight,
+            totalVolume,
             truck.getMaxWeightLbs(),
             truck.getMaxVolumeCuft()
         );
     }
     
     /**
-     * Optimized compatibility check using cached values from previous solution.
+     * DP over subsets: a mask is feasible when it fits the truck and can be reached by
+     * adding one compatible order to a feasible mask one smaller. Every way of reaching a
+     * mask yields the same totals, so the first compatible predecessor settles it.
+     * 
+     * With several trucks the DP runs under their capacity envelope and each feasible
+     * mask is then checked against every truck (see {@link #sweep}).
+     * 
+     * @return per truck, the feasible mask with the highest payout (lowest mask on ties), 0 if none
+     */
+    private int[] search(OrderTable orders, DpArena arena, long[] maxWeights, long[] maxVolumes,
+                         SolveProfiler profiler, long deadlineNanos) {
+        final boolean profiling = profiler != null;
+        int n = orders.n;
+        int trucks = maxWeights.length;
+        long maxWeight = 0;
+        long maxVolume = 0;
+        for (int t = 0; t < trucks; t++) {
+            maxWeight = Math.max(maxWeight, maxWeights[t]);
+            maxVolume = Math.max(maxVolume, maxVolumes[t]);
+        }
+        long maskCount = 1L << n;
+        // Masks are unsigned ints: for n = 32 the end wraps to 0, which the loop reaches last
+        int endMask = (int) maskCount;
+        int lowBits = DpArena.lowBits(n);
+        int lowMask = (1 << lowBits) - 1;
+        
+        SubsetBits feasible = arena.feasible;
+        long[] loWeight = arena.loWeight;
+        long[] hiWeight = arena.hiWeight;
+        long[] loVolume = arena.loVolume;
+        long[] hiVolume = arena.hiVolume;
+        long[] loPayout = arena.loPayout;
+        long[] hiPayout = arena.hiPayout;
+        
+        // Profile counters live in locals and are only touched behind the loop-invariant
+        // `profiling` flag, so the JIT can unswitch them out of the unprofiled loop
+        long statesEvaluated = 0;
+        long statesStored = 0;
+        long rejectedCapacity = 0;
+        long rejectedRoute = 0;
+        long rejectedHazmat = 0;
+        long rejectedTimeWindow = 0;
+        
+        // The empty load is always feasible
+        feasible.set(0);
+        long[] bestPayouts = new long[trucks];
+        int[] bestMasks = new int[trucks];
+        
+        // Iterate through all possible subsets
+        for (int mask = 1; mask != endMask; mask++) {
+            if ((mask & INTERRUPT_CHECK_MASK) == 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Solve cancelled");
+                }
+                if (System.nanoTime() - deadlineNanos > 0) {
+                    throw new SolveDeadlineExceededException(deadlineMs);
+                }
+            }
+            int lo = mask & lowMask;
+            int hi = mask >>> lowBits;
+            
+            // Capacity depends only on the subset, so one check covers every predecessor
+            long weight = loWeight[lo] + hiWeight[hi];
+            long volume = loVolume[lo] + hiVolume[hi];
+            if (weight > maxWeight || volume > maxVolume) {
+                if (profiling) rejectedCapacity++;
+                continue;
+            }
+            
+            // Try adding each order of the subset to the feasible rest
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int i = Integer.numberOfTrailingZeros(rest);
+                int prevMask = mask ^ (1 << i);
+                if (!feasible.get(prevMask)) continue;
+                if (profiling) statesEvaluated++;
+                
+                // Optimized compatibility check using cached values
+                int compatibility = checkCompatibilityFast(orders, i, prevMask, arena, lowBits, lowMask);
+                if (compatibility != COMPATIBLE) {
+                    if (profiling) {
+                        switch (compatibility) {
+                            case ROUTE_MISMATCH -> rejectedRoute++;
+                            case HAZMAT_CONFLICT -> rejectedHazmat++;
+                            default -> rejectedTimeWindow++;
+                        }
+                    }
+                    continue;
+                }
+                
+                feasible.set(mask);
+                if (profiling) statesStored++;
+                
+                // Update best solution of every truck the subset fits
+                long payout = loPayout[lo] + hiPayout[hi];
+                for (int t = 0; t < trucks; t++) {
+                    if (payout > bestPayouts[t] && weight <= maxWeights[t] && volume <= maxVolumes[t]) {
+                        bestPayouts[t] = payout;
+                        bestMasks[t] = mask;
+                    }
+                }
+                break;
+            }
+        }
+        
+        if (profiling) {
+            profiler.masksEvaluated = maskCount - 1;
+            profiler.statesEvaluated = statesEvaluated;
+            profiler.statesStored = statesStored;
+            profiler.rejectedCapacity = rejectedCapacity;
+            profiler.rejectedRoute = rejectedRoute;
+            profiler.rejectedHazmat = rejectedHazmat;
+            profiler.rejectedTimeWindow = rejectedTimeWindow;
+            profiler.tableEntries = maskCount;
+            profiler.tableBytes = DpArena.bytesFor(n);
+            profiler.tableStorage = feasible.storage();
+        }
+        return bestMasks;
+    }
+    
+    /**
+     * Fills totals for every subset of orders {@code [first, first + count)}, each entry
+     * built from the entry without its lowest order.
+     */
+    private static void fillHalfTables(OrderTable orders, int first, int count,
+                                       long[] weight, long[] volume, long[] payout,
+                                       int[] minPickup, int[] maxDelivery) {
+        weight[0] = 0;
+        volume[0] = 0;
+        payout[0] = 0;
+        minPickup[0] = Integer.MAX_VALUE;
+        maxDelivery[0] = Integer.MIN_VALUE;
+        
+        for (int sub = 1; sub < (1 << count); sub++) {
+            int rest = sub & (sub - 1);
+            int i = first + Integer.numberOfTrailingZeros(sub);
+            weight[sub] = weight[rest] + orders.weightLbs[i];
+            volume[sub] = volume[rest] + orders.volumeCuft[i];
+            payout[sub] = payout[rest] + orders.payoutCents[i];
+            minPickup[sub] = Math.min(minPickup[rest], orders.pickupDay[i]);
+            maxDelivery[sub] = Math.max(maxDelivery[rest], orders.deliveryDay[i]);
+        }
+    }
+    
+    /**
+     * Optimized compatibility check using cached values for the previous subset.
      * Avoids extracting orders from mask and iterating through them.
      * 
      * Compatibility rules:
      * 1. Same origin → destination route
      * 2. Time windows don't conflict (pickup_date ≤ delivery_date for all, no overlapping conflicts)
      * 3. Hazmat isolation (if order is hazmat, no other orders should be in the same load)
+     * 
+     * @return COMPATIBLE, or the code of the first check that failed
      */
-    private boolean isCompatibleFast(OrderState newOrder, Solution prev) {
+    private static int checkCompatibilityFast(OrderTable orders, int newOrder, int prevMask,
+                                              DpArena arena, int lowBits, int lowMask) {
         // If no existing orders, it's always compatible
-        if (prev.mask == 0) {
-            return true;
+        if (prevMask == 0) {
+            return COMPATIBLE;
         }
         
-        // Check route compatibility using pre-computed hash
-        // If prev has orders, routeHash must match newOrder's routeHash
-        if (prev.routeHash != newOrder.routeHash) {
-            return false;
+        // Check route compatibility: a feasible subset is single-lane, so any member's lane is its lane
+        if (orders.laneId[newOrder] != orders.laneId[Integer.numberOfTrailingZeros(prevMask)]) {
+            return ROUTE_MISMATCH;
         }
         
-        // Check hazmat isolation (fast check using cached flag)
-        if (newOrder.isHazmat) {
-            // Hazmat orders must be isolated - cannot have any existing orders
-            return false;
-        }
-        if (prev.hasHazmat) {
-            // Cannot add non-hazmat to existing hazmat orders
-            return false;
+        // Check hazmat isolation: hazmat orders cannot join or be joined by any other order
+        if ((orders.hazmatMask & (1 << newOrder)) != 0 || (orders.hazmatMask & prevMask) != 0) {
+            return HAZMAT_CONFLICT;
         }
         
-        // Check time window compatibility using cached min/max dates
+        // Check time window compatibility using the subset's min pickup / max delivery
+        int lo = prevMask & lowMask;
+        int hi = prevMask >>> lowBits;
         // If new order's pickup is after existing orders' max delivery, conflict
-        if (newOrder.pickupDate.isAfter(prev.maxDeliveryDate)) {
-            return false;
+        if (orders.pickupDay[newOrder] > Math.max(arena.loMaxDelivery[lo], arena.hiMaxDelivery[hi])) {
+            return TIME_WINDOW_CONFLICT;
         }
         // If existing orders' min pickup is after new order's delivery, conflict
-        if (prev.minPickupDate.isAfter(newOrder.deliveryDate)) {
-            return false;
+        if (Math.min(arena.loMinPickup[lo], arena.hiMinPickup[hi]) > orders.deliveryDay[newOrder]) {
+            return TIME_WINDOW_CONFLICT;
         }
         
-        return true;
+        return COMPATIBLE;
     }
 }
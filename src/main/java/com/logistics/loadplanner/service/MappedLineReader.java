@@ -0,0 +1,125 @@
+package com.logistics.loadplanner.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads newline-delimited records from a file through read-only memory mappings.
+ *
+ * The file is mapped in windows of {@link #WINDOW_BYTES}, so inputs larger than the 2 GiB
+ * a single buffer can address are fine. Each record is handed out as a slice of the
+ * current mapping; no bytes are copied. A record that starts near the end of a window
+ * is re-read from a new window that starts at the record. Empty and whitespace-only
+ * lines are skipped, and a trailing {@code \r} is dropped.
+ *
+ * Not thread-safe; slices may be read on other threads.
+ */
+final class MappedLineReader implements AutoCloseable {
+
+    static final int WINDOW_BYTES = 64 << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowBytes;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    // File offset just past the last record returned
+    private long offset;
+
+    MappedLineReader(Path file, long startOffset) throws IOException {
+        this(file, startOffset, WINDOW_BYTES);
+    }
+
+    MappedLineReader(Path file, long startOffset, int windowBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+        if (startOffset > size) {
+            channel.close();
+            throw new IOException("Start offset " + startOffset + " is past the end of " + file);
+        }
+        this.offset = startOffset;
+    }
+
+    /**
+     * @return the next record without its line terminator, or null at end of file
+     */
+    ByteBuffer next() throws IOException {
+        while (offset < size) {
+            if (window == null || offset >= windowStart + window.limit()) {
+                map(offset);
+            }
+
+            int from = (int) (offset - windowStart);
+            int newline = indexOfNewline(window, from);
+            int end;
+            if (newline >= 0) {
+                end = newline;
+                offset = windowStart + newline + 1;
+            } else if (windowStart + window.limit() >= size) {
+                // Last record without a trailing newline
+                end = window.limit();
+                offset = size;
+            } else if (from == 0) {
+                throw new IOException("Record at offset " + offset + " is longer than " + windowBytes + " bytes");
+            } else {
+                map(offset);
+                continue;
+            }
+
+            if (end > from && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (!isBlank(window, from, end)) {
+                return window.slice(from, end - from);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * File offset just past the last record returned; reading again from here resumes
+     * with the following record.
+     */
+    long offset() {
+        return offset;
+    }
+
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, size - start));
+    }
+
+    private static int indexOfNewline(ByteBuffer buffer, int from) {
+        for (int i = from, limit = buffer.limit(); i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int from, int end) {
+        for (int i = from; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
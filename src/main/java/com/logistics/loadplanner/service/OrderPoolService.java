@@ -0,0 +1,283 @@
+package com.logistics.loadplanner.service;
+
+import com.logistics.loadplanner.config.PoolProperties;
+import com.logistics.loadplanner.dto.OptimizeRequest;
+import com.logistics.loadplanner.dto.OptimizeResponse;
+import com.logistics.loadplanner.dto.OrderDto;
+import com.logistics.loadplanner.dto.TruckDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-memory pool of open orders, indexed by lane and pickup date, that answers
+ * "best load for this truck" queries without the client pre-selecting candidates.
+ *
+ * Index layout:
+ * - origin → lanes leaving it
+ * - lane → pickup date → orders
+ *
+ * A query only touches the lanes leaving the truck's origin and the pickup dates inside
+ * its horizon, then solves each lane separately (loads never mix lanes) and returns the
+ * best. Reads and writes are guarded by a read/write lock; solving happens outside it.
+ *
+ * Delivery dates are not indexed: inserts reject delivery before pickup, so every order
+ * picked up inside the horizon is also deliverable after the truck's date, and a delivery
+ * index could never narrow a query. Delivery windows between candidates are the solver's
+ * time-window check.
+ */
+@Service
+public class OrderPoolService {
+
+    public static final int DEFAULT_HORIZON_DAYS = 0;
+
+    private final LoadOptimizationService optimizationService;
+    private final int maxCandidates;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PooledOrder> byId = new HashMap<>();
+    private final Map<String, Set<Lane>> lanesByOrigin = new HashMap<>();
+    private final Map<Lane, TreeMap<LocalDate, Map<String, OrderDto>>> byLaneAndPickup = new HashMap<>();
+
+    private record PooledOrder(OrderDto order, Lane lane) {
+    }
+
+    /**
+     * Per-lane candidates of a query, and how many compatible orders were left out because
+     * a lane had more than {@code planner.pool.max-candidates}.
+     */
+    record Candidates(Map<Lane, List<OrderDto>> byLane, int dropped) {
+    }
+
+    public OrderPoolService(LoadOptimizationService optimizationService) {
+        this(optimizationService, new PoolProperties());
+    }
+
+    @Autowired
+    public OrderPoolService(LoadOptimizationService optimizationService, PoolProperties properties) {
+        this.optimizationService = optimizationService;
+        this.maxCandidates = Math.min(Math.max(1, properties.getMaxCandidates()),
+            LoadOptimizationService.MAX_SINGLE_LANE_ORDERS);
+    }
+
+    /**
+     * Inserts orders, replacing any pooled order with the same ID.
+     *
+     * @return number of orders inserted
+     */
+    public int insert(List<OrderDto> orders) {
+        for (OrderDto order : orders) {
+            if (order.getPickupDate().isAfter(order.getDeliveryDate())) {
+                throw new IllegalArgumentException(String.format(
+                    "Order %s: pickup_date must be before or equal to delivery_date", order.getId()));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (OrderDto order : orders) {
+                removeLocked(order.getId());
+                Lane lane = new Lane(order.getOrigin(), order.getDestination());
+                byId.put(order.getId(), new PooledOrder(order, lane));
+                lanesByOrigin.computeIfAbsent(lane.origin(), k -> new LinkedHashSet<>()).add(lane);
+                byLaneAndPickup.computeIfAbsent(lane, k -> new TreeMap<>())
+                    .computeIfAbsent(order.getPickupDate(), k -> new LinkedHashMap<>())
+                    .put(order.getId(), order);
+            }
+            return orders.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if an order with this ID was pooled
+     */
+    public boolean remove(String orderId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(orderId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every order whose pickup date is before {@code before}; such orders can no
+     * longer be picked up and would never be returned by a query.
+     *
+     * @return number of orders expired
+     */
+    public int expire(LocalDate before) {
+        lock.writeLock().lock();
+        try {
+            List<String> expired = new ArrayList<>();
+            for (TreeMap<LocalDate, Map<String, OrderDto>> byPickup : byLaneAndPickup.values()) {
+                for (Map<String, OrderDto> day : byPickup.headMap(before, false).values()) {
+                    expired.addAll(day.keySet());
+                }
+            }
+            expired.forEach(this::removeLocked);
+            return expired.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes and returns every pooled order on a lane matching {@code lanes}, grouped by
+     * lane. Used to hand lanes over to another instance when shard ownership changes.
+     */
+    public Map<Lane, List<OrderDto>> drainLanes(Predicate<Lane> lanes) {
+        lock.writeLock().lock();
+        try {
+            Map<Lane, List<OrderDto>> drained = new LinkedHashMap<>();
+            for (Map.Entry<Lane, TreeMap<LocalDate, Map<String, OrderDto>>> entry : byLaneAndPickup.entrySet()) {
+                if (!lanes.test(entry.getKey())) {
+                    continue;
+                }
+                List<OrderDto> orders = new ArrayList<>();
+                entry.getValue().values().forEach(day -> orders.addAll(day.values()));
+                drained.put(entry.getKey(), orders);
+            }
+            drained.values().forEach(orders -> orders.forEach(order -> removeLocked(order.getId())));
+            return drained;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the most profitable load for a truck available at {@code origin} on {@code date},
+     * considering pooled orders picked up from {@code date} to {@code date + horizonDays}.
+     * When candidates had to be dropped the load may not be optimal, and the response's
+     * {@code candidates_dropped} says how many were left out.
+     */
+    public OptimizeResponse bestLoad(TruckDto truck, String origin, LocalDate date, int horizonDays) {
+        Candidates candidates = candidatesByLane(truck, origin, date, horizonDays);
+
+        OptimizeResponse best = null;
+        for (List<OrderDto> laneOrders : candidates.byLane().values()) {
+            OptimizeResponse response = optimizationService.optimize(new OptimizeRequest(truck, laneOrders));
+            if (best == null || response.getTotalPayoutCents() > best.getTotalPayoutCents()) {
+                best = response;
+            }
+        }
+
+        if (best == null) {
+            return new OptimizeResponse(truck.getId(), Collections.emptyList(), 0L, 0L, 0L,
+                truck.getMaxWeightLbs(), truck.getMaxVolumeCuft());
+        }
+        if (candidates.dropped() > 0) {
+            best.setCandidatesDropped(candidates.dropped());
+        }
+        return best;
+    }
+
+    /**
+     * Pulls compatible candidates from the index, per lane:
+     * - only orders that fit the truck on their own
+     * - at most one hazmat order (the best-paying one), since hazmat loads are singletons
+     * - at most {@code planner.pool.max-candidates}, keeping the highest payouts and counting
+     *   the rest as dropped. The default keeps every lane's table on the heap: above
+     *   {@link LoadOptimizationService#MAX_ORDERS} a solve goes off-heap, takes seconds and
+     *   queues behind {@code planner.dp.off-heap-max-concurrent}
+     */
+    Candidates candidatesByLane(TruckDto truck, String origin, LocalDate date, int horizonDays) {
+        long maxWeight = truck.getMaxWeightLbs();
+        long maxVolume = truck.getMaxVolumeCuft();
+        LocalDate last = date.plusDays(horizonDays);
+        Comparator<OrderDto> byPayoutDesc = Comparator.comparing(OrderDto::getPayoutCents).reversed();
+
+        Map<Lane, List<OrderDto>> result = new LinkedHashMap<>();
+        int dropped = 0;
+        lock.readLock().lock();
+        try {
+            for (Lane lane : lanesByOrigin.getOrDefault(origin, Collections.emptySet())) {
+                NavigableMap<LocalDate, Map<String, OrderDto>> window =
+                    byLaneAndPickup.get(lane).subMap(date, true, last, true);
+
+                List<OrderDto> laneOrders = new ArrayList<>();
+                OrderDto bestHazmat = null;
+                for (Map<String, OrderDto> day : window.values()) {
+                    for (OrderDto order : day.values()) {
+                        if (order.getWeightLbs() > maxWeight || order.getVolumeCuft() > maxVolume) {
+                            continue;
+                        }
+                        if (Boolean.TRUE.equals(order.getIsHazmat())) {
+                            if (bestHazmat == null || order.getPayoutCents() > bestHazmat.getPayoutCents()) {
+                                bestHazmat = order;
+                            }
+                            continue;
+                        }
+                        laneOrders.add(order);
+                    }
+                }
+                if (bestHazmat != null) {
+                    laneOrders.add(bestHazmat);
+                }
+                if (laneOrders.isEmpty()) {
+                    continue;
+                }
+                if (laneOrders.size() > maxCandidates) {
+                    dropped += laneOrders.size() - maxCandidates;
+                    laneOrders.sort(byPayoutDesc);
+                    laneOrders = new ArrayList<>(laneOrders.subList(0, maxCandidates));
+                }
+                result.put(lane, laneOrders);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new Candidates(result, dropped);
+    }
+
+    private boolean removeLocked(String orderId) {
+        PooledOrder pooled = byId.remove(orderId);
+        if (pooled == null) {
+            return false;
+        }
+
+        Lane lane = pooled.lane();
+        TreeMap<LocalDate, Map<String, OrderDto>> byPickup = byLaneAndPickup.get(lane);
+        LocalDate pickup = pooled.order().getPickupDate();
+        Map<String, OrderDto> day = byPickup.get(pickup);
+        day.remove(orderId);
+        if (day.isEmpty()) {
+            byPickup.remove(pickup);
+        }
+        if (byPickup.isEmpty()) {
+            byLaneAndPickup.remove(lane);
+            Set<Lane> lanes = lanesByOrigin.get(lane.origin());
+            lanes.remove(lane);
+            if (lanes.isEmpty()) {
+                lanesByOrigin.remove(lane.origin());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,479 @@
+package com.logistics.loadplanner.service;
+
+import com.logistics.loadplanner.config.ShardingProperties;
+import com.logistics.loadplanner.dto.BestLoadRequest;
+import com.logistics.loadplanner.dto.ClusterMembers;
+import com.logistics.loadplanner.dto.OptimizeRequest;
+import com.logistics.loadplanner.dto.OptimizeResponse;
+import com.logistics.loadplanner.dto.OrderDto;
+import com.logistics.loadplanner.dto.OrderPoolInsertRequest;
+import com.logistics.loadplanner.dto.OrderPoolResponse;
+import com.logistics.loadplanner.dto.SweepRequest;
+import com.logistics.loadplanner.dto.SweepResponse;
+import com.logistics.loadplanner.dto.TruckDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Routes optimize and order pool calls to the instance that owns each lane.
+ *
+ * Loads never mix lanes, so an optimize request is split by lane, each part is solved
+ * by its owner, and the best part wins. Ties go to the part whose selection has the lowest
+ * mask over the original request's order indices, the same rule as the single DP, so the
+ * answer is the same as solving the whole request in one place. Pool inserts go to the lane owner; queries that cannot be
+ * narrowed to one lane (best-load, remove by ID, expire) are scattered to every member.
+ *
+ * Calls between instances carry {@link #FORWARDED_HEADER} so the receiver handles them
+ * locally instead of routing again. With sharding disabled everything is local.
+ */
+@Service
+public class ShardRouter {
+
+    public static final String FORWARDED_HEADER = "X-Planner-Forwarded";
+
+    private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+    private static final String OPTIMIZE_PATH = "/api/v1/load-optimizer/optimize";
+    private static final String SWEEP_PATH = "/api/v1/load-optimizer/sweep";
+    private static final String POOL_PATH = "/api/v1/order-pool";
+    private static final String MEMBERS_PATH = "/api/v1/cluster/members";
+
+    private final LoadOptimizationService optimizationService;
+    private final OrderPoolService orderPoolService;
+    private final ShardingProperties properties;
+    private final RestClient restClient;
+    private final ExecutorService fanOut;
+
+    private volatile ConsistentHashRing ring;
+
+    /**
+     * A part's answer with its selection as a mask over the original request's indices.
+     */
+    private record Ranked(OptimizeResponse response, long mask) {
+    }
+
+    public ShardRouter(LoadOptimizationService optimizationService,
+                       OrderPoolService orderPoolService,
+                       ShardingProperties properties,
+                       RestClient.Builder restClientBuilder) {
+        this.optimizationService = optimizationService;
+        this.orderPoolService = orderPoolService;
+        this.properties = properties;
+
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+            HttpClient.newBuilder().connectTimeout(Duration.ofMillis(properties.getTimeoutMs())).build());
+        requestFactory.setReadTimeout(Duration.ofMillis(properties.getTimeoutMs()));
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.fanOut = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "shard-router");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Set<String> members = new LinkedHashSet<>();
+        members.add(properties.getSelfUrl());
+        members.addAll(properties.getPeers());
+        this.ring = new ConsistentHashRing(members, properties.getVirtualNodes());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public ClusterMembers members() {
+        return new ClusterMembers(properties.getSelfUrl(), ring.nodes(), null);
+    }
+
+    // ---------------------------------------------------------------- optimize
+
+    /**
+     * Solves the request across lane owners. A request whose only lane is local keeps the
+     * caller's profiler as is. Otherwise, when profiling, the split solve is timed as one
+     * "solve" phase after the caller's parse and validate phases, and the counters of every
+     * lane, local or remote, are summed into the caller's profile.
+     */
+    public OptimizeResponse optimize(OptimizeRequest request, SolveProfiler profiler, boolean forwarded) {
+        if (!properties.isEnabled() || forwarded || request.getOrders() == null || request.getOrders().isEmpty()) {
+            return optimizationService.optimize(request, profiler);
+        }
+
+        List<OrderDto> orders = request.getOrders();
+        Map<Lane, List<OrderDto>> byLane = groupByLane(orders);
+        ConsistentHashRing current = ring;
+        String self = properties.getSelfUrl();
+        if (byLane.size() == 1 && current.ownerOf(byLane.keySet().iterator().next().key()).equals(self)) {
+            return optimizationService.optimize(request, profiler);
+        }
+        boolean profiling = profiler != null;
+        if (profiling) {
+            profiler.begin(SolveProfiler.SOLVE);
+        }
+
+        // Remote lanes are in flight while local lanes solve on this thread
+        List<CompletableFuture<OptimizeResponse>> remote = new ArrayList<>();
+        List<List<OrderDto>> remoteOrders = new ArrayList<>();
+        List<OptimizeRequest> local = new ArrayList<>();
+        for (Map.Entry<Lane, List<OrderDto>> entry : byLane.entrySet()) {
+            OptimizeRequest part = new OptimizeRequest(request.getTruck(), entry.getValue());
+            part.setProfile(profiling);
+            String owner = current.ownerOf(entry.getKey().key());
+            if (owner.equals(self)) {
+                local.add(part);
+            } else {
+                remoteOrders.add(entry.getValue());
+                remote.add(CompletableFuture.supplyAsync(
+                    () -> post(owner, OPTIMIZE_PATH, part, OptimizeResponse.class), fanOut));
+            }
+        }
+
+        Map<OrderDto, Integer> indexOf = indexOf(orders);
+        List<Ranked> parts = new ArrayList<>();
+        for (OptimizeRequest part : local) {
+            parts.add(rank(optimizationService.optimize(part), part.getOrders(), indexOf));
+        }
+        List<OptimizeResponse> remoteResponses = joinAll(remote);
+        for (int i = 0; i < remoteResponses.size(); i++) {
+            parts.add(rank(remoteResponses.get(i), remoteOrders.get(i), indexOf));
+        }
+
+        Ranked best = null;
+        for (Ranked part : parts) {
+            best = better(best, part);
+            if (profiling) {
+                profiler.absorb(part.response().getProfile());
+            }
+        }
+        OptimizeResponse response = best.response();
+        if (profiling) {
+            response.setProfile(profiler.toProfile());
+        }
+        return response;
+    }
+
+    /**
+     * Answers one order list for several trucks. Lanes are split across owners like
+     * {@link #optimize}; each truck keeps the best load found on any lane.
+     */
+    public List<OptimizeResponse> sweep(List<TruckDto> trucks, List<OrderDto> orders, boolean forwarded) {
+        if (!properties.isEnabled() || forwarded || orders.isEmpty()) {
+            return optimizationService.sweep(trucks, orders);
+        }
+
+        ConsistentHashRing current = ring;
+        String self = properties.getSelfUrl();
+
+        List<CompletableFuture<SweepResponse>> remote = new ArrayList<>();
+        List<List<OrderDto>> remoteOrders = new ArrayList<>();
+        List<List<OrderDto>> local = new ArrayList<>();
+        for (Map.Entry<Lane, List<OrderDto>> entry : groupByLane(orders).entrySet()) {
+            String owner = current.ownerOf(entry.getKey().key());
+            if (owner.equals(self)) {
+                local.add(entry.getValue());
+            } else {
+                remoteOrders.add(entry.getValue());
+                SweepRequest part = new SweepRequest(trucks, entry.getValue());
+                remote.add(CompletableFuture.supplyAsync(
+                    () -> post(owner, SWEEP_PATH, part, SweepResponse.class), fanOut));
+            }
+        }
+
+        Map<OrderDto, Integer> indexOf = indexOf(orders);
+        List<Ranked> best = new ArrayList<>(Collections.nCopies(trucks.size(), null));
+        for (List<OrderDto> laneOrders : local) {
+            mergeSweep(best, optimizationService.sweep(trucks, laneOrders), laneOrders, indexOf);
+        }
+        List<SweepResponse> remoteResponses = joinAll(remote);
+        for (int i = 0; i < remoteResponses.size(); i++) {
+            mergeSweep(best, remoteResponses.get(i).getResults(), remoteOrders.get(i), indexOf);
+        }
+        return best.stream().map(Ranked::response).toList();
+    }
+
+    // -------------------------------------------------------------- order pool
+
+    public int insert(List<OrderDto> orders, boolean forwarded) {
+        if (!properties.isEnabled() || forwarded) {
+            return orderPoolService.insert(orders);
+        }
+
+        ConsistentHashRing current = ring;
+        Map<String, List<OrderDto>> byOwner = new LinkedHashMap<>();
+        for (OrderDto order : orders) {
+            String owner = current.ownerOf(new Lane(order.getOrigin(), order.getDestination()).key());
+            byOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(order);
+        }
+
+        List<CompletableFuture<Integer>> remote = new ArrayList<>();
+        int inserted = 0;
+        for (Map.Entry<String, List<OrderDto>> entry : byOwner.entrySet()) {
+            if (entry.getKey().equals(properties.getSelfUrl())) {
+                inserted += orderPoolService.insert(entry.getValue());
+            } else {
+                remote.add(CompletableFuture.supplyAsync(() -> post(entry.getKey(), POOL_PATH + "/orders",
+                    new OrderPoolInsertRequest(entry.getValue()), OrderPoolResponse.class).getAffected(), fanOut));
+            }
+        }
+        for (Integer count : joinAll(remote)) {
+            inserted += count;
+        }
+        return inserted;
+    }
+
+    public boolean remove(String orderId, boolean forwarded) {
+        if (orderPoolService.remove(orderId)) {
+            return true;
+        }
+        if (!properties.isEnabled() || forwarded) {
+            return false;
+        }
+        return onPeers(peer -> {
+            try {
+                restClient.delete()
+                    .uri(peer + POOL_PATH + "/orders/{id}", orderId)
+                    .header(FORWARDED_HEADER, "true")
+                    .retrieve()
+                    .toBodilessEntity();
+                return true;
+            } catch (HttpClientErrorException.NotFound e) {
+                return false;
+            }
+        }).contains(true);
+    }
+
+    public int expire(LocalDate before, boolean forwarded) {
+        int expired = orderPoolService.expire(before);
+        if (!properties.isEnabled() || forwarded) {
+            return expired;
+        }
+        for (OrderPoolResponse response : onPeers(peer -> restClient.post()
+                .uri(peer + POOL_PATH + "/expire?before={before}", before)
+                .header(FORWARDED_HEADER, "true")
+                .retrieve()
+                .body(OrderPoolResponse.class))) {
+            expired += response.getAffected();
+        }
+        return expired;
+    }
+
+    public OptimizeResponse bestLoad(BestLoadRequest request, int horizonDays, boolean forwarded) {
+        TruckDto truck = request.getTruck();
+        OptimizeResponse best = orderPoolService.bestLoad(truck, request.getOrigin(), request.getDate(), horizonDays);
+        if (!properties.isEnabled() || forwarded) {
+            return best;
+        }
+        BestLoadRequest peerRequest = new BestLoadRequest(truck, request.getOrigin(), request.getDate(), horizonDays);
+        int dropped = best.getCandidatesDropped() != null ? best.getCandidatesDropped() : 0;
+        for (OptimizeResponse response : onPeers(
+                peer -> post(peer, POOL_PATH + "/best-load", peerRequest, OptimizeResponse.class))) {
+            dropped += response.getCandidatesDropped() != null ? response.getCandidatesDropped() : 0;
+            if (response.getTotalPayoutCents() > best.getTotalPayoutCents()) {
+                best = response;
+            }
+        }
+        best.setCandidatesDropped(dropped > 0 ? dropped : null);
+        return best;
+    }
+
+    // -------------------------------------------------------------- membership
+
+    public ClusterMembers join(String node) {
+        Set<String> members = new LinkedHashSet<>(ring.nodes());
+        members.add(node);
+        return changeMembership(new ArrayList<>(members), node);
+    }
+
+    public ClusterMembers leave(String node) {
+        List<String> members = new ArrayList<>(ring.nodes());
+        members.remove(node);
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("Cannot remove the last cluster member");
+        }
+        return changeMembership(members, node);
+    }
+
+    /**
+     * Installs a membership view on this instance and hands every pooled lane it no
+     * longer owns to the new owner. Orders that cannot be delivered are kept locally.
+     */
+    public ClusterMembers applyMembers(List<String> members) {
+        ConsistentHashRing updated = new ConsistentHashRing(members, properties.getVirtualNodes());
+        ring = updated;
+
+        String self = properties.getSelfUrl();
+        Map<Lane, List<OrderDto>> drained =
+            orderPoolService.drainLanes(lane -> !updated.ownerOf(lane.key()).equals(self));
+
+        Map<String, List<OrderDto>> byOwner = new LinkedHashMap<>();
+        drained.forEach((lane, orders) ->
+            byOwner.computeIfAbsent(updated.ownerOf(lane.key()), k -> new ArrayList<>()).addAll(orders));
+
+        int moved = 0;
+        for (Map.Entry<String, List<OrderDto>> entry : byOwner.entrySet()) {
+            try {
+                post(entry.getKey(), POOL_PATH + "/orders",
+                    new OrderPoolInsertRequest(entry.getValue()), OrderPoolResponse.class);
+                moved += entry.getValue().size();
+            } catch (RuntimeException e) {
+                log.warn("Could not hand {} orders to {}; keeping them locally", entry.getValue().size(),
+                    entry.getKey(), e);
+                orderPoolService.insert(entry.getValue());
+            }
+        }
+        if (moved > 0) {
+            log.info("Rebalanced {} pooled orders after membership change to {}", moved, updated.nodes());
+        }
+        return new ClusterMembers(self, updated.nodes(), moved);
+    }
+
+    /**
+     * Pushes the new view to every old and new member (including a leaving node, so it
+     * hands off its lanes) and then applies it here.
+     */
+    private ClusterMembers changeMembership(List<String> members, String changedNode) {
+        String self = properties.getSelfUrl();
+        Set<String> targets = new LinkedHashSet<>(ring.nodes());
+        targets.add(changedNode);
+        targets.remove(self);
+
+        ClusterMembers view = new ClusterMembers(null, members, null);
+        List<CompletableFuture<ClusterMembers>> pushes = targets.stream()
+            .map(node -> CompletableFuture.supplyAsync(() -> restClient.put()
+                    .uri(node + MEMBERS_PATH)
+                    .header(FORWARDED_HEADER, "true")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(view)
+                    .retrieve()
+                    .body(ClusterMembers.class), fanOut))
+            .toList();
+        List<ClusterMembers> remote = joinAll(pushes);
+
+        ClusterMembers result = applyMembers(members);
+        int moved = result.getMovedOrders();
+        for (ClusterMembers response : remote) {
+            moved += response.getMovedOrders() != null ? response.getMovedOrders() : 0;
+        }
+        result.setMovedOrders(moved);
+        return result;
+    }
+
+    // ----------------------------------------------------------------- helpers
+
+    private static Map<Lane, List<OrderDto>> groupByLane(List<OrderDto> orders) {
+        Map<Lane, List<OrderDto>> byLane = new LinkedHashMap<>();
+        for (OrderDto order : orders) {
+            byLane.computeIfAbsent(new Lane(order.getOrigin(), order.getDestination()), k -> new ArrayList<>())
+                .add(order);
+        }
+        return byLane;
+    }
+
+    private static Map<OrderDto, Integer> indexOf(List<OrderDto> orders) {
+        Map<OrderDto, Integer> indexOf = new IdentityHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            indexOf.put(orders.get(i), i);
+        }
+        return indexOf;
+    }
+
+    /**
+     * Maps a part's selected IDs back to original indices. A part keeps the request's order
+     * and so does its selection, so one forward walk matches them.
+     */
+    private static Ranked rank(OptimizeResponse response, List<OrderDto> partOrders,
+                               Map<OrderDto, Integer> indexOf) {
+        long mask = 0;
+        int next = 0;
+        for (String id : response.getSelectedOrderIds()) {
+            while (!partOrders.get(next).getId().equals(id)) {
+                next++;
+            }
+            mask |= 1L << indexOf.get(partOrders.get(next++));
+        }
+        return new Ranked(response, mask);
+    }
+
+    /**
+     * Higher payout wins; equal payouts go to the lower mask, like
+     * {@code LoadOptimizationService.isBetter}.
+     */
+    private static Ranked better(Ranked best, Ranked candidate) {
+        if (best == null) {
+            return candidate;
+        }
+        long payout = candidate.response().getTotalPayoutCents();
+        long bestPayout = best.response().getTotalPayoutCents();
+        return payout > bestPayout || (payout == bestPayout && payout > 0 && candidate.mask() < best.mask())
+            ? candidate : best;
+    }
+
+    private static void mergeSweep(List<Ranked> best, List<OptimizeResponse> candidates,
+                                   List<OrderDto> partOrders, Map<OrderDto, Integer> indexOf) {
+        for (int t = 0; t < best.size(); t++) {
+            best.set(t, better(best.get(t), rank(candidates.get(t), partOrders, indexOf)));
+        }
+    }
+
+    private <T> T post(String node, String path, Object body, Class<T> type) {
+        return restClient.post()
+            .uri(node + path)
+            .header(FORWARDED_HEADER, "true")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body)
+            .retrieve()
+            .body(type);
+    }
+
+    private <T> List<T> onPeers(Function<String, T> call) {
+        String self = properties.getSelfUrl();
+        List<CompletableFuture<T>> futures = ring.nodes().stream()
+            .filter(node -> !node.equals(self))
+            .map(node -> CompletableFuture.supplyAsync(() -> call.apply(node), fanOut))
+            .toList();
+        return joinAll(futures);
+    }
+
+    private static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RestClientException restError) {
+                    throw new IllegalStateException("Shard request failed: " + restError.getMessage(), restError);
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,19 @@
+package com.logistics.loadplanner.service;
+
+/**
+ * Thrown when a solve does not finish within {@code planner.solver.deadline-ms}, including
+ * time spent waiting for an off-heap DP table; a fanned-out solve's remaining subproblems
+ * have been cancelled.
+ */
+public class SolveDeadlineExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SolveDeadlineExceededException(long deadlineMs) {
+        super("Solve did not finish within " + deadlineMs + " ms");
+    }
+
+    public SolveDeadlineExceededException(String message) {
+        super(message);
+    }
+}
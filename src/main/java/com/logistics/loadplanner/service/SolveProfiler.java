@@ -0,0 +1,144 @@
+package com.logistics.loadplanner.service;
+
+import com.logistics.loadplanner.dto.SolveProfile;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the per-request solve breakdown. Only created when the request sets
+ * "profile": true; the solver keeps its counters in locals and copies them here
+ * once at the end, so an unprofiled request never touches this class.
+ *
+ * Not thread-safe: one instance belongs to one request thread.
+ */
+public final class SolveProfiler {
+
+    public static final String REQUEST_ATTRIBUTE = SolveProfiler.class.getName();
+
+    public static final String PARSE = "parse";
+    public static final String VALIDATE = "validate";
+    public static final String PRE_PROCESS = "pre_process";
+    public static final String SOLVE = "solve";
+    public static final String EXTRACT = "extract";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS =
+        THREADS instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()
+            ? bean : null;
+
+    private final List<SolveProfile.Phase> phases = new ArrayList<>();
+
+    // Currently open phase
+    private String phase;
+    private long wallStart;
+    private long cpuStart;
+    private long allocStart;
+
+    long masksEvaluated;
+    long statesEvaluated;
+    long statesStored;
+    long rejectedCapacity;
+    long rejectedRoute;
+    long rejectedHazmat;
+    long rejectedTimeWindow;
+    long tableEntries;
+    long tableBytes = -1;
+    String tableStorage;
+
+    /**
+     * Records a phase whose start was only captured as a wall-clock timestamp,
+     * such as request body parsing which happens before the profile flag is known.
+     */
+    public void recordWallOnly(String name, long wallStartNanos) {
+        phases.add(new SolveProfile.Phase(name, (System.nanoTime() - wallStartNanos) / 1_000, null, null));
+    }
+
+    public void begin(String name) {
+        phase = name;
+        wallStart = System.nanoTime();
+        cpuStart = cpuNanos();
+        allocStart = allocatedBytes();
+    }
+
+    public void end() {
+        if (phase == null) {
+            return;
+        }
+        long wall = System.nanoTime() - wallStart;
+        long cpu = cpuNanos();
+        long alloc = allocatedBytes();
+        phases.add(new SolveProfile.Phase(
+            phase,
+            wall / 1_000,
+            cpu >= 0 && cpuStart >= 0 ? (cpu - cpuStart) / 1_000 : null,
+            alloc >= 0 && allocStart >= 0 ? alloc - allocStart : null));
+        phase = null;
+    }
+
+    /**
+     * Adds the counters of a part solved elsewhere (another lane, possibly on another
+     * instance) to this profile. Counts are summed; table size and storage are those of
+     * the largest table. The part's phases are not copied: the caller times the whole
+     * split solve as one phase of its own.
+     */
+    public void absorb(SolveProfile part) {
+        if (part == null) {
+            return;
+        }
+        masksEvaluated += valueOf(part.getMasksEvaluated());
+        statesEvaluated += valueOf(part.getStatesEvaluated());
+        statesStored += valueOf(part.getStatesStored());
+        if (part.getRejected() != null) {
+            rejectedCapacity += valueOf(part.getRejected().get("capacity"));
+            rejectedRoute += valueOf(part.getRejected().get("route"));
+            rejectedHazmat += valueOf(part.getRejected().get("hazmat"));
+            rejectedTimeWindow += valueOf(part.getRejected().get("time_window"));
+        }
+        tableEntries += valueOf(part.getTableEntries());
+        if (part.getTableBytes() != null && part.getTableBytes() > tableBytes) {
+            tableBytes = part.getTableBytes();
+            tableStorage = part.getTableStorage();
+        }
+    }
+
+    public SolveProfile toProfile() {
+        end();
+
+        Map<String, Long> rejected = new LinkedHashMap<>();
+        rejected.put("capacity", rejectedCapacity);
+        rejected.put("route", rejectedRoute);
+        rejected.put("hazmat", rejectedHazmat);
+        rejected.put("time_window", rejectedTimeWindow);
+
+        SolveProfile profile = new SolveProfile();
+        profile.setMasksEvaluated(masksEvaluated);
+        profile.setStatesEvaluated(statesEvaluated);
+        profile.setStatesStored(statesStored);
+        profile.setRejected(rejected);
+        profile.setTableEntries(tableEntries);
+        profile.setTableBytes(tableBytes >= 0 ? tableBytes : null);
+        profile.setTableStorage(tableStorage);
+        profile.setPhases(new ArrayList<>(phases));
+        return profile;
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or -1 if the JVM cannot tell.
+     */
+    static long allocatedBytes() {
+        return ALLOCATIONS != null ? ALLOCATIONS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static long cpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+}
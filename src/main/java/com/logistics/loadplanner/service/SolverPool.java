@@ -0,0 +1,61 @@
+package com.logistics.loadplanner.service;
+
+import com.logistics.loadplanner.config.SolverProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of platform threads for CPU-bound DP subproblems, used when
+ * {@code planner.solver.fan-out} is on.
+ *
+ * Request threads (virtual threads in the {@code virtual} profile) only split the work,
+ * wait and merge; the DP itself runs here, so the number of solves burning CPU at once
+ * stays at {@code planner.solver.threads} however many requests are in flight, and a
+ * long solve never pins a virtual thread's carrier.
+ */
+@Component
+public class SolverPool {
+
+    private final SolverProperties properties;
+    private final ExecutorService executor;
+
+    public SolverPool(SolverProperties properties) {
+        this.properties = properties;
+        if (properties.isFanOut()) {
+            AtomicInteger count = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getThreads()), runnable -> {
+                Thread thread = new Thread(runnable, "solver-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    boolean isEnabled() {
+        return executor != null;
+    }
+
+    long deadlineMs() {
+        return properties.getDeadlineMs();
+    }
+
+    /**
+     * Opens a scope for one request; its deadline starts now.
+     */
+    <T> SubproblemScope<T> openScope() {
+        return new SubproblemScope<>(executor, properties.getDeadlineMs());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
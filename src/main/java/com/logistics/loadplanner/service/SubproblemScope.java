@@ -0,0 +1,111 @@
+package com.logistics.loadplanner.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Structured fan-out of one request's subproblems: tasks forked in a scope never outlive
+ * it. {@link #join} waits for all of them and, on the first failure or when the deadline
+ * passes, cancels (interrupts) the rest before throwing. {@link #close} cancels whatever
+ * is still running, so leaving the try-with-resources block always ends every task.
+ *
+ * Same policy as Java 21's {@code StructuredTaskScope.ShutdownOnFailure}, which is still a
+ * preview API there, so this keeps the Java 17 build.
+ *
+ * Owned by a single thread: fork, join and close must be called by the thread that opened it.
+ */
+final class SubproblemScope<T> implements AutoCloseable {
+
+    private final Executor executor;
+    private final long deadlineNanos;
+    private final long deadlineMs;
+    private final List<Future<T>> forked = new ArrayList<>();
+    private final BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<>();
+
+    SubproblemScope(Executor executor, long deadlineMs) {
+        this.executor = executor;
+        this.deadlineMs = deadlineMs;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+    }
+
+    void fork(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                completed.add(this);
+            }
+        };
+        forked.add(future);
+        executor.execute(future);
+    }
+
+    /**
+     * @return results in fork order
+     * @throws SolveDeadlineExceededException if the deadline passed first
+     */
+    List<T> join() {
+        for (int remaining = forked.size(); remaining > 0; remaining--) {
+            Future<T> next;
+            try {
+                long wait = deadlineNanos - System.nanoTime();
+                next = wait > 0 ? completed.poll(wait, TimeUnit.NANOSECONDS) : null;
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for subproblems");
+            }
+            if (next == null) {
+                cancelAll();
+                throw new SolveDeadlineExceededException(deadlineMs);
+            }
+            if (next.isCancelled()) {
+                continue;
+            }
+            try {
+                next.get();
+            } catch (ExecutionException e) {
+                cancelAll();
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Subproblem failed", e.getCause());
+            } catch (InterruptedException e) {
+                // Cannot block: the future is already done
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<T> results = new ArrayList<>(forked.size());
+        for (Future<T> future : forked) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Subproblem result missing after join", e);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+    }
+
+    private void cancelAll() {
+        for (Future<T> future : forked) {
+            future.cancel(true);
+        }
+    }
+}
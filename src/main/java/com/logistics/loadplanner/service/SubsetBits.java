@@ -0,0 +1,131 @@
+package com.logistics.loadplanner.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * One feasibility bit per subset mask, packed 64 to a word.
+ *
+ * Masks are read as unsigned ints, so a table covers up to 32 orders (2^32 bits, 512 MiB).
+ * Small tables live in a heap {@code long[]}; tables over the heap budget live in a direct
+ * or memory-mapped buffer outside the heap (see {@link DpArenaPool}).
+ */
+abstract sealed class SubsetBits permits SubsetBits.Heap, SubsetBits.OffHeap {
+
+    abstract boolean get(int mask);
+
+    abstract void set(int mask);
+
+    /**
+     * Clears the words a solve over {@code n} orders will read.
+     */
+    abstract void clear(int n);
+
+    /**
+     * Storage backend name reported in solve profiles.
+     */
+    abstract String storage();
+
+    static int wordsFor(int n) {
+        return (int) Math.max(1, (1L << n) >>> 6);
+    }
+
+    static final class Heap extends SubsetBits {
+
+        private final long[] words;
+
+        Heap(int n) {
+            this.words = new long[wordsFor(n)];
+        }
+
+        @Override
+        boolean get(int mask) {
+            return (words[mask >>> 6] & (1L << mask)) != 0;
+        }
+
+        @Override
+        void set(int mask) {
+            words[mask >>> 6] |= 1L << mask;
+        }
+
+        @Override
+        void clear(int n) {
+            Arrays.fill(words, 0, wordsFor(n), 0L);
+        }
+
+        @Override
+        String storage() {
+            return "heap";
+        }
+    }
+
+    static final class OffHeap extends SubsetBits {
+
+        private final LongBuffer words;
+        private final String storage;
+
+        private OffHeap(ByteBuffer buffer, String storage) {
+            this.words = buffer.order(ByteOrder.nativeOrder()).asLongBuffer();
+            this.storage = storage;
+        }
+
+        /**
+         * Anonymous memory outside the heap, bounded by {@code -XX:MaxDirectMemorySize}.
+         */
+        static OffHeap direct(int n) {
+            return new OffHeap(ByteBuffer.allocateDirect(wordsFor(n) * 8), "direct");
+        }
+
+        /**
+         * A mapping of an unlinked temp file. Pages are file-backed, so under memory
+         * pressure the kernel can write them out instead of counting them against the
+         * process as anonymous memory. The file is sparse until the solve touches it.
+         */
+        static OffHeap mapped(int n, Path dir) {
+            try {
+                Path file = Files.createTempFile(dir, "dp-table-", ".bits");
+                try (FileChannel channel = FileChannel.open(file,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    return new OffHeap(channel.map(FileChannel.MapMode.READ_WRITE, 0, wordsFor(n) * 8L), "mapped");
+                } finally {
+                    // The mapping stays valid after the file is unlinked
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map DP table in " + dir, e);
+            }
+        }
+
+        @Override
+        boolean get(int mask) {
+            return (words.get(mask >>> 6) & (1L << mask)) != 0;
+        }
+
+        @Override
+        void set(int mask) {
+            int word = mask >>> 6;
+            words.put(word, words.get(word) | 1L << mask);
+        }
+
+        @Override
+        void clear(int n) {
+            int count = wordsFor(n);
+            for (int i = 0; i < count; i++) {
+                words.put(i, 0L);
+            }
+        }
+
+        @Override
+        String storage() {
+            return storage;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.logistics.loadplanner.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistics.loadplanner.TruckLoadPlannerApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Open-loop HTTP load test for POST /api/v1/load-optimizer/optimize.
+ *
+ * Excluded from the default build; run with {@code mvn test -Ploadtest}. The app is started
+ * on a random port unless {@code -Dloadtest.target=http://host:port} points elsewhere, in
+ * which case no local context is started so it cannot compete with the target for CPU.
+ *
+ * Requests are fired on a fixed schedule at each target rate in {@code loadtest.rates}
+ * (requests/second) for {@code loadtest.step-seconds}. Latency is measured from the
+ * scheduled send time, so a backed-up server shows up as latency instead of silently
+ * lowering the offered rate. Transport failures and 5xx responses count as errors; 4xx
+ * responses to invalid recorded requests do not; requests still outstanding after the drain
+ * grace period count as timeouts. Achieved throughput is measured over the send window, so
+ * the drain does not dilute it. A step is sustainable when fewer than 1% of requests fail or
+ * time out, at least 95% of the target rate completes, and p99 stays within
+ * {@code loadtest.p99-slo-ms}.
+ */
+@Tag("loadtest")
+class OptimizeEndpointLoadTest {
+
+    private static final String PATH = "/api/v1/load-optimizer/optimize";
+    private static final int MAX_OUTSTANDING = 2048;
+    private static final long DRAIN_SECONDS = 60;
+
+    private static ConfigurableApplicationContext context;
+    private static String target;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void startTarget() {
+        target = System.getProperty("loadtest.target");
+        if (target == null || target.isBlank()) {
+            context = SpringApplication.run(TruckLoadPlannerApplication.class, "--server.port=0");
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            target = "http://localhost:" + port;
+        }
+    }
+
+    @AfterAll
+    static void stopTarget() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Test
+    void replayTrafficAtIncreasingRates() throws Exception {
+        Path baseDir = Path.of(System.getProperty("loadtest.base-dir", ".")).toAbsolutePath().normalize();
+        Path traffic = baseDir.resolve(System.getProperty("loadtest.traffic", "requests.jsonl"));
+        List<Integer> scales = intList(System.getProperty("loadtest.scales", "5,10,15,20,22,25"));
+        List<Integer> rates = intList(System.getProperty("loadtest.rates", "25,50,100,200,400"));
+        int stepSeconds = Integer.getInteger("loadtest.step-seconds", 10);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+        long sloMicros = Long.getLong("loadtest.p99-slo-ms", 800) * 1_000;
+
+        TrafficCorpus corpus = TrafficCorpus.load(objectMapper, baseDir, traffic, scales);
+        ExecutorService callbacks = Executors.newFixedThreadPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(callbacks)
+            .build();
+        URI uri = URI.create(target + PATH);
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Load test against %s%n", uri));
+        report.append(String.format("Corpus: %d requests %s%n", corpus.size(), corpus.labels()));
+        report.append(String.format("Recorded traffic: %d of %d lines in %s loaded%n%n",
+            corpus.recordedLoaded(), corpus.recordedLines(), traffic));
+
+        List<StepResult> results = new ArrayList<>();
+        try {
+            if (warmupSeconds > 0) {
+                runStep(client, uri, corpus, rates.get(0), warmupSeconds);
+            }
+
+            report.append(String.format("%8s %9s %8s %7s %8s %9s %9s %9s %9s %9s  %s%n",
+                "target/s", "achieved", "requests", "errors", "timeouts", "p50 ms", "p90 ms",
+                "p99 ms", "p99.9 ms", "max ms", "verdict"));
+
+            int maxSustainable = 0;
+            for (int rate : rates) {
+                StepResult step = runStep(client, uri, corpus, rate, stepSeconds);
+                results.add(step);
+                boolean sustainable = step.errorRate() < 0.01
+                    && step.achievedRate() >= 0.95 * rate
+                    && step.histogram.percentileMicros(0.99) <= sloMicros;
+                if (sustainable) {
+                    maxSustainable = rate;
+                }
+                report.append(String.format("%8d %9.1f %8d %6.2f%% %8d %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    rate, step.achievedRate(), step.sent, step.errorRate() * 100, step.timedOut,
+                    millis(step.histogram.percentileMicros(0.50)),
+                    millis(step.histogram.percentileMicros(0.90)),
+                    millis(step.histogram.percentileMicros(0.99)),
+                    millis(step.histogram.percentileMicros(0.999)),
+                    millis(step.histogram.maxMicros()),
+                    sustainable ? "ok" : "saturated"));
+                if (!sustainable && step.errorRate() > 0.5) {
+                    break;
+                }
+            }
+
+            report.append(String.format("%nMax sustainable throughput: %d req/s (p99 SLO %d ms)%n",
+                maxSustainable, sloMicros / 1_000));
+            for (StepResult step : results) {
+                report.append(String.format("%nLatency distribution at %d req/s:%n", step.rate));
+                appendDistribution(report, step.histogram);
+            }
+        } finally {
+            callbacks.shutdownNow();
+        }
+
+        System.out.println(report);
+        Path out = Path.of("target", "loadtest-report.txt");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, report, StandardCharsets.UTF_8);
+
+        assertTrue(results.stream().anyMatch(StepResult::clean),
+            "no step completed without errors or timeouts; see target/loadtest-report.txt");
+    }
+
+    private StepResult runStep(HttpClient client, URI uri, TrafficCorpus corpus,
+                               int rate, int seconds) throws InterruptedException {
+        StepResult result = new StepResult(rate);
+        Semaphore outstanding = new Semaphore(MAX_OUTSTANDING);
+        Set<Long> pending = ConcurrentHashMap.newKeySet();
+        long intervalNanos = 1_000_000_000L / Math.max(1, rate);
+        long total = (long) rate * seconds;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            result.sent++;
+            if (!outstanding.tryAcquire()) {
+                result.errors.incrementAndGet();
+                continue;
+            }
+
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpus.body((int) i)))
+                .build();
+            long id = i;
+            pending.add(id);
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    // A request already written off as a timeout is not counted again
+                    if (pending.remove(id)) {
+                        result.histogram.recordNanos(System.nanoTime() - scheduled);
+                        if (error != null || response.statusCode() >= 500) {
+                            result.errors.incrementAndGet();
+                        } else {
+                            result.completed.incrementAndGet();
+                        }
+                    }
+                    outstanding.release();
+                });
+        }
+        // The send window ends when the last request was due (or actually sent, if the
+        // generator fell behind); the drain below is excluded from the achieved rate
+        result.sendWindowNanos = Math.max(System.nanoTime(), start + total * intervalNanos) - start;
+
+        // Drain in-flight requests so their latency is recorded; anything still outstanding
+        // after the grace period is counted once, as a timeout
+        if (outstanding.tryAcquire(MAX_OUTSTANDING, DRAIN_SECONDS, TimeUnit.SECONDS)) {
+            outstanding.release(MAX_OUTSTANDING);
+        } else {
+            for (Long id : pending) {
+                if (pending.remove(id)) {
+                    result.timedOut++;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void appendDistribution(StringBuilder report, LatencyHistogram histogram) {
+        double[] quantiles = {0.10, 0.25, 0.50, 0.75, 0.90, 0.95, 0.99, 0.999, 1.0};
+        for (double q : quantiles) {
+            long micros = q >= 1.0 ? histogram.maxMicros() : histogram.percentileMicros(q);
+            report.append(String.format("  %6.1f%%  %10.2f ms%n", q * 100, millis(micros)));
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static List<Integer> intList(String csv) {
+        return Arrays.stream(csv.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .map(Integer::valueOf)
+            .toList();
+    }
+
+    private static final class StepResult {
+        final int rate;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final AtomicLong completed = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        long sent;
+        long timedOut;
+        long sendWindowNanos;
+
+        StepResult(int rate) {
+            this.rate = rate;
+        }
+
+        double achievedRate() {
+            return sendWindowNanos == 0 ? 0 : completed.get() * 1e9 / sendWindowNanos;
+        }
+
+        double errorRate() {
+            return sent == 0 ? 0 : (double) (errors.get() + timedOut) / sent;
+        }
+
+        boolean clean() {
+            return completed.get() > 0 && errors.get() == 0 && timedOut == 0;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.logistics.loadplanner.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Request bodies replayed by the load test.
+ *
+ * Sources, in order:
+ * 1. Recorded traffic: an NDJSON file with one OptimizeRequest per line. Lines that are
+ *    not optimize requests (no truck/orders) are skipped, so mixed logs can be used as-is.
+ * 2. The sample-request*.json files in the project root.
+ * 3. Synthetic variants of every sample, scaled to each requested order count by cycling
+ *    its orders under new IDs.
+ */
+final class TrafficCorpus {
+
+    private static final int MAX_ORDERS = 25;
+
+    private final List<String> bodies;
+    private final List<String> labels;
+    private final int recordedLines;
+    private final int recordedLoaded;
+
+    private TrafficCorpus(List<String> bodies, List<String> labels,
+                          int recordedLines, int recordedLoaded) {
+        this.bodies = bodies;
+        this.labels = labels;
+        this.recordedLines = recordedLines;
+        this.recordedLoaded = recordedLoaded;
+    }
+
+    static TrafficCorpus load(ObjectMapper mapper, Path baseDir, Path trafficFile,
+                              List<Integer> scales) throws IOException {
+        List<String> bodies = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        int recordedLines = 0;
+
+        if (trafficFile != null && Files.isRegularFile(trafficFile)) {
+            int lineNo = 0;
+            for (String line : Files.readAllLines(trafficFile, StandardCharsets.UTF_8)) {
+                lineNo++;
+                if (line.isBlank()) continue;
+                recordedLines++;
+                JsonNode node;
+                try {
+                    node = mapper.readTree(line);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (isOptimizeRequest(node)) {
+                    bodies.add(mapper.writeValueAsString(node));
+                    labels.add(trafficFile.getFileName() + ":" + lineNo);
+                }
+            }
+        }
+        int recordedLoaded = bodies.size();
+
+        List<Path> samples = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(baseDir, "sample-request*.json")) {
+            stream.forEach(samples::add);
+        }
+        Collections.sort(samples);
+
+        for (Path sample : samples) {
+            JsonNode node = mapper.readTree(sample.toFile());
+            if (!isOptimizeRequest(node)) continue;
+            bodies.add(mapper.writeValueAsString(node));
+            labels.add(sample.getFileName().toString());
+
+            for (int scale : scales) {
+                if (scale == node.get("orders").size()) continue;
+                bodies.add(mapper.writeValueAsString(scaled((ObjectNode) node, scale)));
+                labels.add(sample.getFileName() + "@" + scale);
+            }
+        }
+
+        if (bodies.isEmpty()) {
+            throw new IllegalStateException("No optimize requests found under " + baseDir);
+        }
+        return new TrafficCorpus(bodies, labels, recordedLines, recordedLoaded);
+    }
+
+    private static boolean isOptimizeRequest(JsonNode node) {
+        return node != null && node.isObject()
+            && node.path("truck").isObject() && node.path("orders").isArray();
+    }
+
+    /**
+     * Builds a copy of the request with exactly {@code size} orders, repeating the
+     * original orders with suffixed IDs when growing.
+     */
+    private static ObjectNode scaled(ObjectNode request, int size) {
+        int target = Math.min(Math.max(size, 0), MAX_ORDERS);
+        ArrayNode source = (ArrayNode) request.get("orders");
+        ObjectNode copy = request.deepCopy();
+        ArrayNode orders = copy.putArray("orders");
+
+        for (int i = 0; i < target && !source.isEmpty(); i++) {
+            ObjectNode order = ((ObjectNode) source.get(i % source.size())).deepCopy();
+            if (i >= source.size()) {
+                order.put("id", order.path("id").asText() + "-x" + (i / source.size()));
+            }
+            orders.add(order);
+        }
+        return copy;
+    }
+
+    int size() {
+        return bodies.size();
+    }
+
+    String body(int i) {
+        return bodies.get(i % bodies.size());
+    }
+
+    List<String> labels() {
+        return labels;
+    }
+
+    /** Non-blank lines in the recorded traffic file. */
+    int recordedLines() {
+        return recordedLines;
+    }
+
+    /** Recorded lines that parsed as optimize requests and were added to the corpus. */
+    int recordedLoaded() {
+        return recordedLoaded;
+    }
+}
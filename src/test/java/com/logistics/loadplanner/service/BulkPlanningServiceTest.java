@@ -0,0 +1,149 @@
+package com.logistics.loadplanner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.logistics.loadplanner.config.BulkProperties;
+import com.logistics.loadplanner.dto.*;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkPlanningServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private LoadOptimizationService optimizationService;
+    private BulkPlanningService bulk;
+    private List<OptimizeRequest> requests;
+    private Path input;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        optimizationService = new LoadOptimizationService();
+        bulk = new BulkPlanningService(optimizationService, objectMapper,
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+        requests = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            List<OrderDto> orders = new ArrayList<>();
+            for (int j = 0; j <= i % 12; j++) {
+                orders.add(createOrder("ord-" + i + "-" + j, 50000L + 7000L * j, 4000L + 1500L * (j % 4)));
+            }
+            OptimizeRequest request = new OptimizeRequest(new TruckDto("truck-" + i, 30000L, 2500L), orders);
+            requests.add(request);
+            lines.add(objectMapper.writeValueAsString(request));
+        }
+        lines.add(7, "{\"truck\": oops}");
+        lines.add(20, "");
+        input = dir.resolve("requests.ndjson");
+        Files.write(input, lines);
+    }
+
+    @Test
+    void testResultsFollowInputOrder() throws IOException {
+        BulkPlanningService.Summary summary = bulk.run(properties(3));
+        
+        List<String> output = Files.readAllLines(Path.of(properties(3).getOutput()));
+        assertEquals(41, output.size());
+        assertEquals(41, summary.instances());
+        assertEquals(1, summary.failed());
+        assertTrue(objectMapper.readTree(output.get(7)).get("error").asText().startsWith("Request 8:"));
+        
+        List<String> answers = new ArrayList<>(output);
+        answers.remove(7);
+        for (int i = 0; i < requests.size(); i++) {
+            OptimizeResponse expected = optimizationService.optimize(requests.get(i));
+            OptimizeResponse actual = objectMapper.readValue(answers.get(i), OptimizeResponse.class);
+            assertEquals(expected.getTruckId(), actual.getTruckId());
+            assertEquals(expected.getSelectedOrderIds(), actual.getSelectedOrderIds());
+        }
+        assertFalse(Files.exists(Path.of(properties(3).getCheckpoint())));
+    }
+
+    @Test
+    void testResumesFromCheckpoint() throws IOException {
+        BulkProperties properties = properties(2);
+        bulk.run(properties);
+        Path output = Path.of(properties.getOutput());
+        byte[] complete = Files.readAllBytes(output);
+        
+        // Simulate a run killed after a checkpoint at 10 requests, mid-way through line 12
+        List<String> done = Files.readAllLines(output).subList(0, 10);
+        long outputOffset = done.stream().mapToLong(line -> line.getBytes(StandardCharsets.UTF_8).length + 1).sum();
+        Files.write(output, done);
+        Files.writeString(output, "{\"truck_id\":\"partial", StandardOpenOption.APPEND);
+        long inputOffset;
+        try (MappedLineReader reader = new MappedLineReader(input, 0)) {
+            for (int i = 0; i < 10; i++) {
+                reader.next();
+            }
+            inputOffset = reader.offset();
+        }
+        bulk.writeCheckpoint(Path.of(properties.getCheckpoint()), new BulkPlanningService.Checkpoint(
+            input.toAbsolutePath().normalize().toString(), Files.size(input), inputOffset, outputOffset, 10));
+        
+        BulkPlanningService.Summary summary = bulk.run(properties);
+        
+        assertEquals(10, summary.resumed());
+        assertEquals(31, summary.instances());
+        assertArrayEquals(complete, Files.readAllBytes(output));
+    }
+
+    @Test
+    void testReaderCrossesMappingWindows() throws IOException {
+        Path file = dir.resolve("lines.ndjson");
+        Files.writeString(file, "first record\n\n  \nsecond, a bit longer\r\nthird");
+        
+        List<String> records = new ArrayList<>();
+        try (MappedLineReader reader = new MappedLineReader(file, 0, 24)) {
+            for (ByteBuffer record = reader.next(); record != null; record = reader.next()) {
+                records.add(StandardCharsets.UTF_8.decode(record).toString());
+            }
+        }
+        
+        assertEquals(List.of("first record", "second, a bit longer", "third"), records);
+    }
+
+    private BulkProperties properties(int solveThreads) {
+        BulkProperties properties = new BulkProperties();
+        properties.setInput(input.toString());
+        properties.setParseThreads(2);
+        properties.setSolveThreads(solveThreads);
+        properties.setWindow(4);
+        properties.setCheckpointInterval(5);
+        return properties;
+    }
+
+    private OrderDto createOrder(String id, Long payout, Long weight) {
+        OrderDto order = new OrderDto();
+        order.setId(id);
+        order.setPayoutCents(payout);
+        order.setWeightLbs(weight);
+        order.setVolumeCuft(300L);
+        order.setOrigin("Los Angeles, CA");
+        order.setDestination("Dallas, TX");
+        order.setPickupDate(LocalDate.of(2025, 12, 5));
+        order.setDeliveryDate(LocalDate.of(2025, 12, 9));
+        order.setIsHazmat(false);
+        return order;
+    }
+}
@@ -0,0 +1,79 @@
+package com.logistics.loadplanner.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> NODES = List.of(
+        "http://localhost:8081", "http://localhost:8082", "http://localhost:8083");
+
+    @Test
+    void testOwnershipIsDeterministic() {
+        ConsistentHashRing a = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing b = new ConsistentHashRing(List.of(NODES.get(2), NODES.get(0), NODES.get(1)), 128);
+        
+        for (int i = 0; i < 1000; i++) {
+            String lane = "origin-" + i + "|destination";
+            assertEquals(a.ownerOf(lane), b.ownerOf(lane));
+        }
+    }
+
+    @Test
+    void testLanesSpreadAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, 128);
+        Map<String, Integer> counts = new HashMap<>();
+        
+        for (int i = 0; i < 3000; i++) {
+            counts.merge(ring.ownerOf("origin-" + i + "|destination"), 1, Integer::sum);
+        }
+        
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > 600 && count < 1400, "unbalanced: " + counts));
+    }
+
+    @Test
+    void testJoinOnlyMovesLanesToNewNode() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        String joined = "http://localhost:8084";
+        ConsistentHashRing after = new ConsistentHashRing(
+            List.of(NODES.get(0), NODES.get(1), NODES.get(2), joined), 128);
+        
+        int moved = 0;
+        for (int i = 0; i < 3000; i++) {
+            String lane = "origin-" + i + "|destination";
+            String owner = after.ownerOf(lane);
+            if (!owner.equals(before.ownerOf(lane))) {
+                assertEquals(joined, owner);
+                moved++;
+            }
+        }
+        assertTrue(moved > 0 && moved < 1500);
+    }
+
+    @Test
+    void testLeaveOnlyMovesDepartedNodesLanes() {
+        ConsistentHashRing before = new ConsistentHashRing(NODES, 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of(NODES.get(0), NODES.get(1)), 128);
+        
+        for (int i = 0; i < 3000; i++) {
+            String lane = "origin-" + i + "|destination";
+            String previous = before.ownerOf(lane);
+            if (!previous.equals(NODES.get(2))) {
+                assertEquals(previous, after.ownerOf(lane));
+            }
+        }
+    }
+
+    @Test
+    void testEmptyRingRejectsLookups() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(), 128);
+        
+        assertThrows(IllegalStateException.class, () -> ring.ownerOf("a|b"));
+    }
+}
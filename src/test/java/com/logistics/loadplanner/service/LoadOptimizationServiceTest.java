@@ -1,5 +1,7 @@
 package com.logistics.loadplanner.service;
 
+import com.logistics.loadplanner.config.DpProperties;
+import com.logistics.loadplanner.config.SolverProperties;
 import com.logistics.loadplanner.dto.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +10,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -150,6 +153,269 @@ class LoadOptimizationServiceTest {
         assertTrue(response.getTotalPayoutCents() >= 550000L);
     }
 
+    @Test
+    void testCombinationOutweighingEarlierBestIsFound() {
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        // ord-1 alone beats any single or pair of the others, but all three others beat it
+        OrderDto order1 = createOrder("ord-1", 100000L, 10000L, 500L, false);
+        order1.setDestination("Phoenix, AZ");
+        OrderDto order2 = createOrder("ord-2", 40000L, 10000L, 500L, false);
+        OrderDto order3 = createOrder("ord-3", 40000L, 10000L, 500L, false);
+        OrderDto order4 = createOrder("ord-4", 40000L, 10000L, 500L, false);
+        
+        OptimizeRequest request = new OptimizeRequest(truck, List.of(order1, order2, order3, order4));
+        
+        OptimizeResponse response = service.optimize(request);
+        
+        assertEquals(List.of("ord-2", "ord-3", "ord-4"), response.getSelectedOrderIds());
+        assertEquals(120000L, response.getTotalPayoutCents());
+    }
+
+    @Test
+    void testArenaIsReusedAcrossSolves() {
+        DpArenaPool pool = new DpArenaPool(new DpProperties());
+        LoadOptimizationService pooled = new LoadOptimizationService(pool);
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        OptimizeRequest large = new OptimizeRequest(truck, List.of(
+            createOrder("ord-1", 250000L, 18000L, 1200L, false),
+            createOrder("ord-2", 180000L, 12000L, 900L, false),
+            createOrder("ord-3", 320000L, 30000L, 1800L, false)));
+        OptimizeRequest small = new OptimizeRequest(truck, List.of(
+            createOrder("ord-4", 100000L, 10000L, 500L, false)));
+        
+        OptimizeResponse first = pooled.optimize(large);
+        pooled.optimize(small);
+        OptimizeResponse again = pooled.optimize(large);
+        
+        assertEquals(1, pool.misses());
+        assertEquals(2, pool.hits());
+        // Stale bits from earlier solves must not leak into later ones
+        assertEquals(first.getSelectedOrderIds(), again.getSelectedOrderIds());
+        assertEquals(first.getTotalPayoutCents(), again.getTotalPayoutCents());
+    }
+
+    @Test
+    void testOffHeapTableMatchesHeap() {
+        TruckDto truck = new TruckDto("truck-1", 30000L, 2500L);
+        List<OrderDto> orders = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            orders.add(createOrder("ord-" + i, 50000L + 17000L * (i % 5), 3000L + 900L * (i % 7),
+                200L + 60L * (i % 4), i == 3));
+        }
+        OptimizeRequest request = new OptimizeRequest(truck, orders);
+        request.setProfile(true);
+        OptimizeResponse onHeap = service.optimize(request);
+        assertEquals("heap", onHeap.getProfile().getTableStorage());
+        
+        for (DpProperties.OffHeapMode mode : DpProperties.OffHeapMode.values()) {
+            DpProperties properties = new DpProperties();
+            properties.setHeapTableMaxBytes(0);
+            properties.setOffHeapMode(mode);
+            DpArenaPool pool = new DpArenaPool(properties);
+            LoadOptimizationService offHeap = new LoadOptimizationService(pool);
+            
+            OptimizeResponse first = offHeap.optimize(request);
+            OptimizeResponse reused = offHeap.optimize(request);
+            
+            assertEquals(mode.name().toLowerCase(), first.getProfile().getTableStorage());
+            assertEquals(2, pool.offHeapSolves());
+            assertEquals(onHeap.getSelectedOrderIds(), first.getSelectedOrderIds());
+            assertEquals(onHeap.getSelectedOrderIds(), reused.getSelectedOrderIds());
+            assertEquals(onHeap.getTotalPayoutCents(), reused.getTotalPayoutCents());
+        }
+    }
+
+    @Test
+    void testOffHeapWaitIsBoundedByDeadline() {
+        DpProperties dp = new DpProperties();
+        dp.setHeapTableMaxBytes(0);
+        dp.setOffHeapMode(DpProperties.OffHeapMode.DIRECT);
+        dp.setOffHeapMaxConcurrent(1);
+        DpArenaPool pool = new DpArenaPool(dp);
+        SolverProperties solver = new SolverProperties();
+        solver.setDeadlineMs(50);
+        LoadOptimizationService bounded = new LoadOptimizationService(pool, new SolverPool(solver));
+        OptimizeRequest request = new OptimizeRequest(new TruckDto("truck-1", 30000L, 2500L),
+            List.of(createOrder("ord-1", 50000L, 3000L, 200L, false)));
+
+        // Holds the only permit
+        DpArena held = pool.borrow(1, System.nanoTime() + 1_000_000_000L);
+        try {
+            assertThrows(SolveDeadlineExceededException.class, () -> bounded.optimize(request));
+        } finally {
+            pool.release(held);
+        }
+        assertEquals(List.of("ord-1"), bounded.optimize(request).getSelectedOrderIds());
+    }
+
+    @Test
+    void testOffHeapArenaKeptOnlyUnderPoolCap() {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        DpProperties dp = new DpProperties();
+        dp.setHeapTableMaxBytes(0);
+        dp.setOffHeapMode(DpProperties.OffHeapMode.DIRECT);
+
+        DpArenaPool keeping = new DpArenaPool(dp);
+        DpArena kept = keeping.borrow(4, deadline);
+        keeping.release(kept);
+        assertSame(kept, keeping.borrow(4, deadline));
+
+        dp.setArenaPoolMaxBytes(DpArena.bytesFor(4) - 1);
+        DpArenaPool capped = new DpArenaPool(dp);
+        DpArena dropped = capped.borrow(4, deadline);
+        capped.release(dropped);
+        assertNotSame(dropped, capped.borrow(4, deadline));
+    }
+
+    @Test
+    void testMoreThanMaxOrdersOnlyOnSingleLane() {
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        List<OrderDto> orders = new ArrayList<>();
+        for (int i = 0; i < LoadOptimizationService.MAX_ORDERS + 1; i++) {
+            orders.add(createOrder("ord-" + i, 10000L + i, 5000L, 300L, false));
+        }
+        
+        OptimizeResponse response = service.optimize(new OptimizeRequest(truck, orders));
+        // Eight orders fit by weight; the eight highest payouts are the last ones
+        assertEquals(8, response.getSelectedOrderIds().size());
+        assertTrue(response.getSelectedOrderIds().contains("ord-25"));
+        
+        orders.get(0).setDestination("Phoenix, AZ");
+        assertThrows(IllegalArgumentException.class,
+            () -> service.optimize(new OptimizeRequest(truck, orders)));
+    }
+
+    @Test
+    void testFanOutMatchesSingleSolve() {
+        SolverProperties properties = new SolverProperties();
+        properties.setFanOut(true);
+        properties.setThreads(2);
+        SolverPool solverPool = new SolverPool(properties);
+        LoadOptimizationService fanOut = new LoadOptimizationService(new DpArenaPool(new DpProperties()), solverPool);
+        TruckDto truck = new TruckDto("truck-1", 30000L, 2500L);
+        List<OrderDto> orders = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            OrderDto order = createOrder("ord-" + i, 40000L + 10000L * (i % 4), 4000L + 1000L * (i % 5),
+                300L, i % 6 == 0);
+            if (i % 3 == 1) {
+                order.setDestination("Phoenix, AZ");
+            }
+            orders.add(order);
+        }
+        // A hazmat order paying more than any lane's best load
+        orders.add(createOrder("ord-hazmat", 900000L, 8000L, 300L, true));
+        
+        try {
+            for (List<OrderDto> subset : List.of(orders, orders.subList(0, 14))) {
+                OptimizeRequest request = new OptimizeRequest(truck, subset);
+                OptimizeResponse expected = service.optimize(request);
+                OptimizeResponse actual = fanOut.optimize(request);
+                assertEquals(expected.getSelectedOrderIds(), actual.getSelectedOrderIds());
+                assertEquals(expected.getTotalPayoutCents(), actual.getTotalPayoutCents());
+            }
+
+            // A profiled request is split too: the counters are those of the two lane DPs
+            // (6 and 5 non-hazmat orders), not of one DP over all 15
+            OptimizeRequest profiled = new OptimizeRequest(truck, orders);
+            profiled.setProfile(true);
+            OptimizeResponse response = fanOut.optimize(profiled);
+            assertEquals(service.optimize(profiled).getSelectedOrderIds(), response.getSelectedOrderIds());
+            assertEquals((1L << 6) - 1 + (1L << 5) - 1, response.getProfile().getMasksEvaluated());
+            assertEquals(List.of("pre_process", "solve", "extract"), response.getProfile().getPhases().stream()
+                .map(SolveProfile.Phase::getPhase).toList());
+
+            // A sweep takes the same fan-out path, one part per lane for all trucks
+            List<TruckDto> trucks = List.of(truck, new TruckDto("truck-2", 9000L, 2500L),
+                new TruckDto("truck-3", 44000L, 900L));
+            List<OptimizeResponse> expected = service.sweep(trucks, orders);
+            List<OptimizeResponse> actual = fanOut.sweep(trucks, orders);
+            for (int t = 0; t < trucks.size(); t++) {
+                assertEquals(expected.get(t).getSelectedOrderIds(), actual.get(t).getSelectedOrderIds());
+            }
+        } finally {
+            solverPool.shutdown();
+        }
+    }
+
+    @Test
+    void testInterruptedSolveIsCancelled() {
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        List<OrderDto> orders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orders.add(createOrder("ord-" + i, 10000L + i, 2000L, 100L, false));
+        }
+        
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> service.optimize(new OptimizeRequest(truck, orders)));
+        } finally {
+            Thread.interrupted();
+        }
+        // The cancelled solve returned its arena and left nothing behind
+        assertEquals(8, service.optimize(new OptimizeRequest(truck, orders.subList(0, 8)))
+            .getSelectedOrderIds().size());
+    }
+
+    @Test
+    void testSweepMatchesIndividualSolves() {
+        List<TruckDto> trucks = List.of(
+            new TruckDto("small", 20000L, 1500L),
+            new TruckDto("medium", 30000L, 2500L),
+            new TruckDto("large", 44000L, 3000L),
+            new TruckDto("tiny", 4000L, 100L));
+        List<OrderDto> orders = List.of(
+            createOrder("ord-1", 250000L, 18000L, 1200L, false),
+            createOrder("ord-2", 180000L, 12000L, 900L, false),
+            createOrder("ord-3", 320000L, 30000L, 1800L, false),
+            createOrder("ord-4", 90000L, 6000L, 400L, false),
+            createOrder("ord-5", 400000L, 15000L, 800L, true));
+        
+        List<OptimizeResponse> swept = service.sweep(trucks, orders);
+        
+        assertEquals(trucks.size(), swept.size());
+        for (int t = 0; t < trucks.size(); t++) {
+            OptimizeResponse single = service.optimize(new OptimizeRequest(trucks.get(t), orders));
+            assertEquals(trucks.get(t).getId(), swept.get(t).getTruckId());
+            assertEquals(single.getSelectedOrderIds(), swept.get(t).getSelectedOrderIds());
+            assertEquals(single.getTotalPayoutCents(), swept.get(t).getTotalPayoutCents());
+        }
+        assertTrue(swept.get(3).getSelectedOrderIds().isEmpty());
+    }
+
+    @Test
+    void testProfileOmittedByDefault() {
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        OrderDto order = createOrder("ord-1", 250000L, 18000L, 1200L, false);
+        OptimizeRequest request = new OptimizeRequest(truck, List.of(order));
+        
+        OptimizeResponse response = service.optimize(request);
+        
+        assertNull(response.getProfile());
+    }
+
+    @Test
+    void testProfileBreakdown() {
+        TruckDto truck = new TruckDto("truck-1", 30000L, 3000L);
+        OrderDto order1 = createOrder("ord-1", 250000L, 20000L, 500L, false);
+        OrderDto order2 = createOrder("ord-2", 200000L, 20000L, 500L, false); // too heavy with ord-1
+        OrderDto order3 = createOrder("ord-3", 100000L, 5000L, 500L, true);  // hazmat
+        OptimizeRequest request = new OptimizeRequest(truck, List.of(order1, order2, order3));
+        request.setProfile(true);
+        
+        OptimizeResponse response = service.optimize(request);
+        SolveProfile profile = response.getProfile();
+        
+        assertNotNull(profile);
+        assertEquals(7L, profile.getMasksEvaluated());
+        assertEquals(8L, profile.getTableEntries());
+        assertTrue(profile.getRejected().get("capacity") > 0);
+        assertTrue(profile.getRejected().get("hazmat") > 0);
+        List<String> phases = profile.getPhases().stream().map(SolveProfile.Phase::getPhase).toList();
+        assertEquals(List.of("pre_process", "solve", "extract"), phases);
+        // Profiling must not change the answer
+        assertEquals(List.of("ord-1"), response.getSelectedOrderIds());
+    }
+
     private OrderDto createOrder(String id, Long payout, Long weight, Long volume, boolean hazmat) {
         OrderDto order = new OrderDto();
         order.setId(id);
@@ -0,0 +1,122 @@
+package com.logistics.loadplanner.service;
+
+import com.logistics.loadplanner.dto.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderPoolServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 12, 5);
+
+    private OrderPoolService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new OrderPoolService(new LoadOptimizationService());
+    }
+
+    @Test
+    void testInsertReplacesAndRemoves() {
+        pool.insert(List.of(createOrder("ord-1", 100000L, "Los Angeles, CA", "Dallas, TX", DAY, false)));
+        pool.insert(List.of(createOrder("ord-1", 200000L, "Los Angeles, CA", "Dallas, TX", DAY, false)));
+        
+        assertEquals(1, pool.size());
+        assertTrue(pool.remove("ord-1"));
+        assertFalse(pool.remove("ord-1"));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void testExpireDropsPastPickups() {
+        pool.insert(List.of(
+            createOrder("ord-1", 100000L, "Los Angeles, CA", "Dallas, TX", DAY.minusDays(1), false),
+            createOrder("ord-2", 100000L, "Los Angeles, CA", "Dallas, TX", DAY, false)));
+        
+        assertEquals(1, pool.expire(DAY));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void testBestLoadPicksBestLaneFromOrigin() {
+        pool.insert(List.of(
+            createOrder("la-dal-1", 200000L, "Los Angeles, CA", "Dallas, TX", DAY, false),
+            createOrder("la-dal-2", 150000L, "Los Angeles, CA", "Dallas, TX", DAY, false),
+            createOrder("la-phx-1", 300000L, "Los Angeles, CA", "Phoenix, AZ", DAY, false),
+            createOrder("ny-dal-1", 900000L, "New York, NY", "Dallas, TX", DAY, false),
+            createOrder("la-dal-late", 900000L, "Los Angeles, CA", "Dallas, TX", DAY.plusDays(3), false)));
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        
+        OptimizeResponse response = pool.bestLoad(truck, "Los Angeles, CA", DAY, 1);
+        
+        // LA→Dallas pair (350000) beats the single LA→Phoenix order; other origin and
+        // pickups outside the horizon are never considered
+        assertEquals(List.of("la-dal-1", "la-dal-2"), response.getSelectedOrderIds());
+        assertEquals(350000L, response.getTotalPayoutCents());
+    }
+
+    @Test
+    void testCandidatesKeepOnlyBestHazmatAndFittingOrders() {
+        pool.insert(List.of(
+            createOrder("haz-1", 100000L, "Los Angeles, CA", "Dallas, TX", DAY, true),
+            createOrder("haz-2", 120000L, "Los Angeles, CA", "Dallas, TX", DAY, true),
+            createOrder("ord-1", 100000L, "Los Angeles, CA", "Dallas, TX", DAY, false)));
+        OrderDto heavy = createOrder("heavy", 500000L, "Los Angeles, CA", "Dallas, TX", DAY, false);
+        heavy.setWeightLbs(50000L);
+        pool.insert(List.of(heavy));
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        
+        Map<Lane, List<OrderDto>> candidates = pool.candidatesByLane(truck, "Los Angeles, CA", DAY, 0).byLane();
+        
+        List<String> ids = candidates.get(new Lane("Los Angeles, CA", "Dallas, TX")).stream()
+            .map(OrderDto::getId).toList();
+        assertEquals(List.of("ord-1", "haz-2"), ids);
+    }
+
+    @Test
+    void testCandidatesCappedPerLaneAndCounted() {
+        int extra = 3;
+        for (int i = 0; i < LoadOptimizationService.MAX_ORDERS + extra; i++) {
+            pool.insert(List.of(createOrder("ord-" + i, 1000L + i, "Los Angeles, CA", "Dallas, TX", DAY, false)));
+        }
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        
+        OrderPoolService.Candidates candidates = pool.candidatesByLane(truck, "Los Angeles, CA", DAY, 0);
+        
+        List<OrderDto> laneOrders = candidates.byLane().get(new Lane("Los Angeles, CA", "Dallas, TX"));
+        assertEquals(LoadOptimizationService.MAX_ORDERS, laneOrders.size());
+        assertEquals(extra, candidates.dropped());
+        // The lowest payouts are the ones left out
+        assertTrue(laneOrders.stream().noneMatch(order -> order.getPayoutCents() < 1000L + extra));
+    }
+
+    @Test
+    void testBestLoadWithNoCandidates() {
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+        
+        OptimizeResponse response = pool.bestLoad(truck, "Los Angeles, CA", DAY, 0);
+        
+        assertTrue(response.getSelectedOrderIds().isEmpty());
+        assertEquals(0L, response.getTotalPayoutCents());
+    }
+
+    private OrderDto createOrder(String id, Long payout, String origin, String destination,
+                                 LocalDate pickup, boolean hazmat) {
+        OrderDto order = new OrderDto();
+        order.setId(id);
+        order.setPayoutCents(payout);
+        order.setWeightLbs(10000L);
+        order.setVolumeCuft(500L);
+        order.setOrigin(origin);
+        order.setDestination(destination);
+        order.setPickupDate(pickup);
+        order.setDeliveryDate(pickup.plusDays(4));
+        order.setIsHazmat(hazmat);
+        return order;
+    }
+}
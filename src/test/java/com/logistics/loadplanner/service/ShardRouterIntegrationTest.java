@@ -0,0 +1,323 @@
+package com.logistics.loadplanner.service;
+
+import com.logistics.loadplanner.TruckLoadPlannerApplication;
+import com.logistics.loadplanner.controller.ProfilingRequestBodyAdvice;
+import com.logistics.loadplanner.dto.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs three instances on localhost: A and B form the ring, C starts alone and is joined
+ * and removed by the membership test. Requests go to A, which routes them.
+ */
+class ShardRouterIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 12, 5);
+    private static final int VIRTUAL_NODES = 128;
+
+    private static String urlA;
+    private static String urlB;
+    private static String urlC;
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static ConfigurableApplicationContext nodeC;
+    private static RestClient client;
+
+    private final LoadOptimizationService unsharded = new LoadOptimizationService();
+
+    @BeforeAll
+    static void startCluster() throws IOException {
+        int portA = freePort();
+        int portB = freePort();
+        int portC = freePort();
+        urlA = "http://localhost:" + portA;
+        urlB = "http://localhost:" + portB;
+        urlC = "http://localhost:" + portC;
+        String peers = urlA + "," + urlB;
+        nodeA = start(portA, peers);
+        nodeB = start(portB, peers);
+        nodeC = start(portC, "");
+        client = nodeA.getBean(RestClient.Builder.class).build();
+    }
+
+    @AfterAll
+    static void stopCluster() {
+        for (ConfigurableApplicationContext node : new ConfigurableApplicationContext[] {nodeA, nodeB, nodeC}) {
+            if (node != null) {
+                node.close();
+            }
+        }
+    }
+
+    @BeforeEach
+    void clearPools() {
+        for (ConfigurableApplicationContext node : List.of(nodeA, nodeB, nodeC)) {
+            node.getBean(OrderPoolService.class).drainLanes(lane -> true);
+        }
+    }
+
+    @Test
+    void testMultiLaneOptimizeMatchesUnsharded() {
+        String remoteLane = destinationOwnedBy(urlB, "Reno, NV", 0);
+        String localLane = destinationOwnedBy(urlA, "Reno, NV", 0);
+        String otherLane = destinationOwnedBy(urlB, "Reno, NV", 1);
+        TruckDto truck = new TruckDto("truck-1", 44000L, 3000L);
+
+        // Both lanes pay 150000 at best; the unsharded DP keeps the lower mask (the remote
+        // lane's orders 0 and 1), which the local lane must not win by arriving first
+        List<OrderDto> orders = List.of(
+            createOrder("remote-1", 100000L, "Reno, NV", remoteLane, false),
+            createOrder("remote-2", 50000L, "Reno, NV", remoteLane, false),
+            createOrder("local-1", 150000L, "Reno, NV", localLane, false),
+            createOrder("other-1", 90000L, "Reno, NV", otherLane, false),
+            createOrder("local-haz", 120000L, "Reno, NV", localLane, true));
+
+        OptimizeResponse sharded = optimize(new OptimizeRequest(truck, orders));
+
+        assertEquals(List.of("remote-1", "remote-2"), sharded.getSelectedOrderIds());
+        assertSameAnswer(unsharded.optimize(new OptimizeRequest(truck, orders)), sharded);
+    }
+
+    @Test
+    void testRandomMultiLaneRequestsMatchUnsharded() {
+        List<String> lanes = List.of(
+            destinationOwnedBy(urlA, "Boise, ID", 0), destinationOwnedBy(urlA, "Boise, ID", 1),
+            destinationOwnedBy(urlB, "Boise, ID", 0), destinationOwnedBy(urlB, "Boise, ID", 1));
+        Random random = new Random(29);
+        TruckDto truck = new TruckDto("truck-1", 30000L, 2000L);
+
+        for (int round = 0; round < 20; round++) {
+            List<OrderDto> orders = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                // Few distinct payouts so lanes often tie
+                OrderDto order = createOrder("ord-" + round + "-" + i, 50000L * (1 + random.nextInt(3)),
+                    "Boise, ID", lanes.get(random.nextInt(lanes.size())), random.nextInt(6) == 0);
+                order.setWeightLbs(5000L + 1000L * random.nextInt(10));
+                orders.add(order);
+            }
+
+            OptimizeResponse sharded = optimize(new OptimizeRequest(truck, orders));
+
+            assertSameAnswer(unsharded.optimize(new OptimizeRequest(truck, orders)), sharded);
+        }
+    }
+
+    @Test
+    void testMultiLaneProfileSumsLanes() {
+        String remoteLane = destinationOwnedBy(urlB, "Fresno, CA", 0);
+        String localLane = destinationOwnedBy(urlA, "Fresno, CA", 0);
+        OptimizeRequest request = new OptimizeRequest(new TruckDto("truck-1", 44000L, 3000L), List.of(
+            createOrder("remote-1", 100000L, "Fresno, CA", remoteLane, false),
+            createOrder("remote-2", 50000L, "Fresno, CA", remoteLane, false),
+            createOrder("local-1", 120000L, "Fresno, CA", localLane, false)));
+
+        SolveProfile profile = client.post()
+            .uri(urlA + "/api/v1/load-optimizer/optimize")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(ProfilingRequestBodyAdvice.PROFILE_HEADER, "true")
+            .body(request)
+            .retrieve()
+            .body(OptimizeResponse.class)
+            .getProfile();
+
+        // Caller's parse and validate phases plus one solve phase; masks from both lanes (3 + 1)
+        assertEquals(List.of(SolveProfiler.PARSE, SolveProfiler.VALIDATE, SolveProfiler.SOLVE),
+            profile.getPhases().stream().map(SolveProfile.Phase::getPhase).toList());
+        assertEquals(4L, profile.getMasksEvaluated());
+
+        // The body flag alone still times validation; only parse needs the header
+        request.setProfile(true);
+        SolveProfile bodyOnly = optimize(request).getProfile();
+        assertEquals(List.of(SolveProfiler.VALIDATE, SolveProfiler.SOLVE),
+            bodyOnly.getPhases().stream().map(SolveProfile.Phase::getPhase).toList());
+    }
+
+    @Test
+    void testSweepMergeMatchesUnsharded() {
+        String remoteLane = destinationOwnedBy(urlB, "Ogden, UT", 0);
+        String localLane = destinationOwnedBy(urlA, "Ogden, UT", 0);
+        List<TruckDto> trucks = List.of(
+            new TruckDto("big", 44000L, 3000L), new TruckDto("small", 10000L, 3000L));
+        List<OrderDto> orders = List.of(
+            createOrder("remote-1", 100000L, "Ogden, UT", remoteLane, false),
+            createOrder("remote-2", 50000L, "Ogden, UT", remoteLane, false),
+            createOrder("local-1", 120000L, "Ogden, UT", localLane, false),
+            createOrder("local-2", 30000L, "Ogden, UT", localLane, false));
+
+        SweepResponse sharded = client.post()
+            .uri(urlA + "/api/v1/load-optimizer/sweep")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(new SweepRequest(trucks, orders))
+            .retrieve()
+            .body(SweepResponse.class);
+
+        List<OptimizeResponse> expected = unsharded.sweep(trucks, orders);
+        assertEquals(2, sharded.getResults().size());
+        for (int t = 0; t < trucks.size(); t++) {
+            assertSameAnswer(expected.get(t), sharded.getResults().get(t));
+        }
+        // The small truck takes one order: the local lane's best single pays most
+        assertEquals(List.of("local-1"), sharded.getResults().get(1).getSelectedOrderIds());
+    }
+
+    @Test
+    void testInsertOnNonOwnerLandsOnOwner() {
+        String lane = destinationOwnedBy(urlB, "Eugene, OR", 0);
+
+        client.post()
+            .uri(urlA + "/api/v1/order-pool/orders")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(new OrderPoolInsertRequest(List.of(
+                createOrder("pool-1", 100000L, "Eugene, OR", lane, false),
+                createOrder("pool-2", 80000L, "Eugene, OR", lane, false))))
+            .retrieve()
+            .toBodilessEntity();
+
+        assertEquals(0, nodeA.getBean(OrderPoolService.class).size());
+        assertEquals(2, nodeB.getBean(OrderPoolService.class).size());
+    }
+
+    @Test
+    void testJoinAndLeaveMoveOnlyReassignedLanes() {
+        List<OrderDto> orders = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            orders.add(createOrder("lane-" + i, 100000L, "Spokane, WA", "City " + i, false));
+        }
+        client.post()
+            .uri(urlA + "/api/v1/order-pool/orders")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(new OrderPoolInsertRequest(orders))
+            .retrieve()
+            .toBodilessEntity();
+        ConsistentHashRing twoNodes = new ConsistentHashRing(List.of(urlA, urlB), VIRTUAL_NODES);
+        ConsistentHashRing threeNodes = new ConsistentHashRing(List.of(urlA, urlB, urlC), VIRTUAL_NODES);
+        int reassigned = 0;
+        for (OrderDto order : orders) {
+            if (!ownerOf(twoNodes, order).equals(ownerOf(threeNodes, order))) {
+                reassigned++;
+            }
+        }
+        assertTrue(reassigned > 0, "test lanes should give C some ownership");
+
+        ClusterMembers joined = changeMembership("/join", urlC);
+
+        assertEquals(3, joined.getMembers().size());
+        assertEquals(reassigned, joined.getMovedOrders());
+        assertPoolsMatch(threeNodes, orders);
+
+        ClusterMembers left = changeMembership("/leave", urlC);
+
+        assertEquals(2, left.getMembers().size());
+        assertEquals(reassigned, left.getMovedOrders());
+        assertPoolsMatch(twoNodes, orders);
+    }
+
+    // ----------------------------------------------------------------- helpers
+
+    private OptimizeResponse optimize(OptimizeRequest request) {
+        return client.post()
+            .uri(urlA + "/api/v1/load-optimizer/optimize")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(request)
+            .retrieve()
+            .body(OptimizeResponse.class);
+    }
+
+    private ClusterMembers changeMembership(String path, String url) {
+        return client.post()
+            .uri(urlA + "/api/v1/cluster" + path)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("url", url))
+            .retrieve()
+            .body(ClusterMembers.class);
+    }
+
+    private static void assertSameAnswer(OptimizeResponse expected, OptimizeResponse actual) {
+        assertEquals(expected.getSelectedOrderIds(), actual.getSelectedOrderIds());
+        assertEquals(expected.getTotalPayoutCents(), actual.getTotalPayoutCents());
+        assertEquals(expected.getTotalWeightLbs(), actual.getTotalWeightLbs());
+    }
+
+    /**
+     * Every order sits in exactly the pool of its lane's owner on {@code ring}.
+     */
+    private static void assertPoolsMatch(ConsistentHashRing ring, List<OrderDto> orders) {
+        Map<String, ConfigurableApplicationContext> nodes = Map.of(urlA, nodeA, urlB, nodeB, urlC, nodeC);
+        Map<String, Integer> expected = new HashMap<>();
+        orders.forEach(order -> expected.merge(ownerOf(ring, order), 1, Integer::sum));
+        for (Map.Entry<String, ConfigurableApplicationContext> node : nodes.entrySet()) {
+            OrderPoolService pool = node.getValue().getBean(OrderPoolService.class);
+            assertEquals(expected.getOrDefault(node.getKey(), 0), pool.size(), node.getKey());
+            for (List<OrderDto> laneOrders : pool.candidatesByLane(
+                    new TruckDto("probe", 44000L, 3000L), "Spokane, WA", DAY, 0).byLane().values()) {
+                laneOrders.forEach(order -> assertEquals(node.getKey(), ownerOf(ring, order), order.getId()));
+            }
+        }
+    }
+
+    private static String ownerOf(ConsistentHashRing ring, OrderDto order) {
+        return ring.ownerOf(new Lane(order.getOrigin(), order.getDestination()).key());
+    }
+
+    /**
+     * The {@code skip}-th destination from {@code origin} whose lane {@code owner} owns on
+     * the A/B ring.
+     */
+    private static String destinationOwnedBy(String owner, String origin, int skip) {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(urlA, urlB), VIRTUAL_NODES);
+        for (int i = 0; ; i++) {
+            String destination = "Destination " + i;
+            if (ring.ownerOf(new Lane(origin, destination).key()).equals(owner) && skip-- == 0) {
+                return destination;
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int port, String peers) {
+        return new SpringApplicationBuilder(TruckLoadPlannerApplication.class).run(
+            "--server.port=" + port,
+            "--planner.sharding.enabled=true",
+            "--planner.sharding.self-url=http://localhost:" + port,
+            "--planner.sharding.peers=" + peers,
+            "--planner.sharding.virtual-nodes=" + VIRTUAL_NODES,
+            "--spring.main.banner-mode=off");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static OrderDto createOrder(String id, Long payout, String origin, String destination,
+                                        boolean hazmat) {
+        OrderDto order = new OrderDto();
+        order.setId(id);
+        order.setPayoutCents(payout);
+        order.setWeightLbs(8000L);
+        order.setVolumeCuft(500L);
+        order.setOrigin(origin);
+        order.setDestination(destination);
+        order.setPickupDate(DAY);
+        order.setDeliveryDate(DAY.plusDays(4));
+        order.setIsHazmat(hazmat);
+        return order;
+    }
+}
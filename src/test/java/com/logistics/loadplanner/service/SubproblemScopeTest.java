@@ -0,0 +1,83 @@
+package com.logistics.loadplanner.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubproblemScopeTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testJoinReturnsResultsInForkOrder() {
+        try (SubproblemScope<Integer> scope = new SubproblemScope<>(executor, 10000)) {
+            scope.fork(() -> {
+                Thread.sleep(50);
+                return 1;
+            });
+            scope.fork(() -> 2);
+            scope.fork(() -> 3);
+            
+            assertEquals(List.of(1, 2, 3), scope.join());
+        }
+    }
+
+    @Test
+    void testFailureCancelsSiblings() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (SubproblemScope<Integer> scope = new SubproblemScope<>(executor, 10000)) {
+            scope.fork(() -> {
+                started.countDown();
+                return sleepUntilInterrupted(interrupted);
+            });
+            // Fail only once the sibling runs; a sibling cancelled before it starts never
+            // gets to observe the interrupt
+            scope.fork(() -> {
+                started.await();
+                throw new IllegalArgumentException("bad part");
+            });
+            
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class, scope::join);
+            assertEquals("bad part", error.getMessage());
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testDeadlineCancelsUnfinishedTasks() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (SubproblemScope<Integer> scope = new SubproblemScope<>(executor, 50)) {
+            scope.fork(() -> {
+                started.countDown();
+                return sleepUntilInterrupted(interrupted);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            
+            assertThrows(SolveDeadlineExceededException.class, scope::join);
+        }
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    private static Integer sleepUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(60000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return 0;
+    }
+}